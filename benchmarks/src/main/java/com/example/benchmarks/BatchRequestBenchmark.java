@@ -0,0 +1,63 @@
+package com.example.benchmarks;
+
+import com.example.Elevator;
+import com.example.ElevatorRequest;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A burst of requests planned one by one versus with a single {@code Elevator.planAll}.
+ * <p>
+ * Every invocation gets a freshly prefilled elevator; the prefilling is not measured.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class BatchRequestBenchmark {
+
+    @Param({"8", "64"})
+    private int burst;
+
+    @Param({"100", "1000"})
+    private int queuedStates;
+
+    @Param({"20"})
+    private int floors;
+
+    private Elevator elevator;
+    private List<ElevatorRequest> requests;
+
+    @Setup(Level.Invocation)
+    public void setUp() {
+        elevator = Scenarios.withQueuedStates(floors, queuedStates);
+        requests = new ArrayList<>(burst);
+        for (int i = 0; i < burst; i++) {
+            final int floor = (i * 7) % floors + 1;
+            requests.add(i % 2 == 0 ? ElevatorRequest.hallCall(floor) : ElevatorRequest.carCall(floor));
+        }
+    }
+
+    @Benchmark
+    public Elevator oneByOne() {
+        for (final ElevatorRequest request : requests) {
+            if (request.isHallCall()) {
+                elevator.callTo(request.getFloor());
+            } else {
+                elevator.rideTo(request.getFloor());
+            }
+        }
+        return elevator;
+    }
+
+    @Benchmark
+    public Elevator planAll() {
+        elevator.planAll(requests);
+        return elevator;
+    }
+}
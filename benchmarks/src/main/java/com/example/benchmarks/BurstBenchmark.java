@@ -0,0 +1,63 @@
+package com.example.benchmarks;
+
+import com.example.Elevator;
+import com.example.ElevatorBank;
+import com.example.VirtualClock;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A burst of concurrent hall calls and rides, assigned and planned by an {@link ElevatorBank}.
+ * <p>
+ * Every invocation gets a fresh bank, so the burst is planned on top of the same plan each time.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class BurstBenchmark {
+
+    @Param({"1", "8", "64"})
+    private int burst;
+
+    @Param({"1", "4"})
+    private int cars;
+
+    @Param({"20"})
+    private int floors;
+
+    private ElevatorBank bank;
+
+    @Setup(Level.Invocation)
+    public void setUp() {
+        final VirtualClock clock = new VirtualClock();
+        final List<Elevator> elevators = new ArrayList<>(cars);
+        for (int i = 0; i < cars; i++) {
+            elevators.add(Scenarios.newElevator(floors, clock));
+        }
+        bank = new ElevatorBank(elevators);
+    }
+
+    @TearDown(Level.Invocation)
+    public void tearDown() {
+        bank.close();
+    }
+
+    @Benchmark
+    public void callToAndRideTo() {
+        final List<CompletableFuture<?>> planned = new ArrayList<>(2 * burst);
+        for (int i = 0; i < burst; i++) {
+            final int from = i % floors + 1;
+            final int to = (i * 7 + floors / 2) % floors + 1;
+            planned.add(bank.callTo(from)
+                            .thenCompose(car -> bank.rideTo(car, to)));
+        }
+        CompletableFuture.allOf(planned.toArray(new CompletableFuture<?>[0])).join();
+    }
+}
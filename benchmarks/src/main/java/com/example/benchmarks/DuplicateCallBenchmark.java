@@ -0,0 +1,54 @@
+package com.example.benchmarks;
+
+import com.example.Elevator;
+import com.example.ElevatorBank;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pressing the button of a floor again and again, while the elevator is already called there:
+ * the repeated calls are acknowledged without planning anything.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class DuplicateCallBenchmark {
+
+    @Param({"20", "160"})
+    private int floors;
+
+    @Param({"100", "1000"})
+    private int queuedStates;
+
+    private Elevator elevator;
+    private ElevatorBank bank;
+    private int calledFloor;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        elevator = Scenarios.withQueuedStates(floors, queuedStates);
+        bank = new ElevatorBank(Collections.singletonList(elevator));
+        calledFloor = floors;
+        elevator.callTo(calledFloor);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        bank.close();
+    }
+
+    @Benchmark
+    public void callTo() {
+        elevator.callTo(calledFloor);
+    }
+
+    @Benchmark
+    public Elevator bankCallTo() {
+        return bank.callTo(calledFloor).join();
+    }
+}
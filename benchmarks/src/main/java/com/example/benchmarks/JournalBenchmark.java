@@ -0,0 +1,75 @@
+package com.example.benchmarks;
+
+import com.example.DoorsState;
+import com.example.ElevatorState;
+import com.example.JournalReader;
+import com.example.StateJournal;
+import com.example.VirtualClock;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Appending a transition to a {@link StateJournal}, and scanning a journal of a million transitions.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class JournalBenchmark {
+
+    private static final int SCANNED_RECORDS = 1_000_000;
+
+    private Path appendDirectory;
+    private Path scanDirectory;
+    private StateJournal journal;
+    private JournalReader reader;
+    private ElevatorState state;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        final VirtualClock clock = new VirtualClock();
+        state = new ElevatorState(clock.epochNanos(), 5, DoorsState.CLOSED, 2.0d);
+        appendDirectory = Files.createTempDirectory("journal-append");
+        journal = new StateJournal(appendDirectory);
+        scanDirectory = Files.createTempDirectory("journal-scan");
+        try (final StateJournal scanned = new StateJournal(scanDirectory)) {
+            for (int i = 0; i < SCANNED_RECORDS; i++) {
+                scanned.append(i % 3 + 1, state);
+            }
+        }
+        reader = new JournalReader(scanDirectory);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        journal.close();
+        delete(appendDirectory);
+        delete(scanDirectory);
+    }
+
+    @Benchmark
+    public void append() {
+        journal.append(1, state);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SCANNED_RECORDS)
+    public long scan(final Blackhole blackhole) throws IOException {
+        return reader.scan((carNumber, plannedEpochNanos, floor, doorsState, speed) -> blackhole.consume(floor));
+    }
+
+    private static void delete(final Path directory) throws IOException {
+        try (final Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(file -> file.toFile().delete());
+        }
+    }
+}
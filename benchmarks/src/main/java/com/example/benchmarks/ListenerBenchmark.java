@@ -0,0 +1,77 @@
+package com.example.benchmarks;
+
+import com.example.AsyncStateListener;
+import com.example.DoorsState;
+import com.example.Elevator;
+import com.example.ElevatorState;
+import com.example.ElevatorStateListener;
+import com.example.ListenerOverflowPolicy;
+import com.example.VirtualClock;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Dispatching a new state to the listeners in {@code Elevator.updateState},
+ * either right away or through an {@link AsyncStateListener} with the given overflow policy.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ListenerBenchmark {
+
+    private static final int FLOORS = 20;
+    private static final int BUFFER_CAPACITY = 1024;
+    private static final String SYNC = "SYNC";
+
+    @Param({"1", "4", "16"})
+    private int listeners;
+
+    @Param({SYNC, "BLOCK", "DROP_OLDEST", "CONFLATE"})
+    private String delivery;
+
+    private Elevator elevator;
+    private ElevatorState[] states;
+    private int next;
+    private ElevatorState lastNotified;
+    private final List<AsyncStateListener> asyncListeners = new ArrayList<>();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        final VirtualClock clock = new VirtualClock();
+        elevator = Scenarios.newElevator(FLOORS, clock);
+        for (int i = 0; i < listeners; i++) {
+            final ElevatorStateListener listener = (previousState, newState) -> lastNotified = newState;
+            if (SYNC.equals(delivery)) {
+                elevator.addListener(listener);
+            } else {
+                final AsyncStateListener asyncListener = new AsyncStateListener(listener, BUFFER_CAPACITY,
+                        ListenerOverflowPolicy.valueOf(delivery));
+                asyncListeners.add(asyncListener);
+                elevator.addListener(asyncListener);
+            }
+        }
+        states = new ElevatorState[FLOORS];
+        for (int i = 0; i < states.length; i++) {
+            states[i] = new ElevatorState(clock.epochNanos(), i + 1, DoorsState.CLOSED, Scenarios.SPEED);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        asyncListeners.forEach(AsyncStateListener::close);
+        asyncListeners.clear();
+    }
+
+    @Benchmark
+    public ElevatorState updateState() {
+        elevator.updateState(states[next]);
+        next = (next + 1) % states.length;
+        return lastNotified;
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.benchmarks;
+
+import com.example.BatchSimulation;
+import com.example.ElevatorSettings;
+import com.example.PlannerType;
+import com.example.SimulationReport;
+import com.example.TraceCall;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The same stream of passengers served by every {@link PlannerType}, replayed on a virtual clock.
+ * <p>
+ * This measures the planning cost of a whole workload; the resulting wait and ride times
+ * can be compared by running the same trace with {@code --batch} and {@code --planner}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class MovementPlannerBenchmark {
+
+    private static final long SEED = 42L;
+    private static final long MEAN_INTERVAL_IN_MILLIS = 3000L;
+
+    @Param({"EXCURSIONS", "LOOK"})
+    private PlannerType planner;
+
+    @Param({"100", "1000"})
+    private int passengers;
+
+    @Param({"20", "160"})
+    private int floors;
+
+    private List<TraceCall> calls;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        final Random random = new Random(SEED);
+        calls = new ArrayList<>(passengers);
+        long offsetNanos = 0L;
+        for (int i = 0; i < passengers; i++) {
+            offsetNanos += TimeUnit.MILLISECONDS.toNanos(random.nextInt((int) (2 * MEAN_INTERVAL_IN_MILLIS)));
+            final int floor = random.nextInt(floors) + 1;
+            final int destination = (floor + random.nextInt(floors - 1)) % floors + 1;
+            calls.add(new TraceCall(offsetNanos, floor, destination));
+        }
+    }
+
+    @Benchmark
+    public SimulationReport replay() throws InterruptedException {
+        final ElevatorSettings settings = new ElevatorSettings(floors,
+                Scenarios.HEIGHT, Scenarios.SPEED, Scenarios.TIMEOUT_IN_SECONDS, 1, planner);
+        return new BatchSimulation(settings, calls).run();
+    }
+}
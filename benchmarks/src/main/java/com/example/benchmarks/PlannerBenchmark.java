@@ -0,0 +1,49 @@
+package com.example.benchmarks;
+
+import com.example.Elevator;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Planning one more call ({@code Elevator.planMovement}) on top of an already queued plan.
+ * <p>
+ * Planning changes the plan, so every invocation gets a freshly prefilled elevator;
+ * the prefilling is not measured.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PlannerBenchmark {
+
+    @Param({"10", "100", "1000"})
+    private int queuedStates;
+
+    @Param({"5", "20", "160"})
+    private int floors;
+
+    private Elevator elevator;
+    private int targetFloor;
+
+    @Setup(Level.Invocation)
+    public void setUp() {
+        elevator = Scenarios.withQueuedStates(floors, queuedStates);
+        targetFloor = targetFloor % floors + 1;
+    }
+
+    @Benchmark
+    public void callTo(final Blackhole blackhole) {
+        elevator.callTo(targetFloor);
+        blackhole.consume(elevator);
+    }
+
+    @Benchmark
+    public void rideTo(final Blackhole blackhole) {
+        elevator.rideTo(floors + 1 - targetFloor);
+        blackhole.consume(elevator);
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.benchmarks;
+
+import com.example.Elevator;
+import com.example.VirtualClock;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Elevators in a reproducible state for the benchmarks.
+ * <p>
+ * The elevators run on a {@link VirtualClock}, so their plans do not drain while being measured.
+ */
+final class Scenarios {
+
+    static final double HEIGHT = 3.0d;
+    static final double SPEED = 2.0d;
+    static final double TIMEOUT_IN_SECONDS = 1.0d;
+
+    private Scenarios() {
+    }
+
+    @Nonnull
+    static Elevator newElevator(final int floors,
+                                @Nonnull final VirtualClock clock) {
+        return new Elevator(floors, HEIGHT, SPEED, TIMEOUT_IN_SECONDS, clock);
+    }
+
+    /**
+     * Calls the elevator to one floor after another until about the given number of states is queued.
+     * A floor which already has a planned stop does not add anything, so the clock is moved on a little then.
+     */
+    @Nonnull
+    static Elevator withQueuedStates(final int floors,
+                                     final int queuedStates) {
+        final Elevator elevator = newElevator(floors, new VirtualClock());
+        int floor = 1;
+        for (int i = 0; elevator.getPlanSize() < queuedStates && i < 100 * queuedStates; i++) {
+            final int before = elevator.getPlanSize();
+            floor = i % 3 == 0
+                    ? floor * 7 % floors + 1
+                    : floor % floors + 1;
+            elevator.callTo(floor);
+            if (elevator.getPlanSize() == before) {
+                elevator.advanceToNextState();
+            }
+        }
+        return elevator;
+    }
+}
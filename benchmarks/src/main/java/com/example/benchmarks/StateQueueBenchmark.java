@@ -0,0 +1,59 @@
+package com.example.benchmarks;
+
+import com.example.Elevator;
+import com.example.ElevatorState;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The hot paths of the queued states: polling for the due states and consuming them.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class StateQueueBenchmark {
+
+    @Param({"10", "100", "1000"})
+    private int queuedStates;
+
+    @Param({"5", "20"})
+    private int floors;
+
+    private Elevator elevator;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        elevator = Scenarios.withQueuedStates(floors, queuedStates);
+    }
+
+    /**
+     * What the application loop does most of the time: nothing is due yet.
+     */
+    @Benchmark
+    public ElevatorState pollCurrentStateWhenNothingIsDue() {
+        return elevator.pollCurrentState();
+    }
+
+    /**
+     * A status query: reads the published snapshot without locking.
+     */
+    @Benchmark
+    public ElevatorState getCurrentState() {
+        return elevator.getCurrentState();
+    }
+
+    /**
+     * Consumes the next planned state; the plan is refilled (rarely) when it runs out.
+     */
+    @Benchmark
+    public boolean advanceToNextState() {
+        if (elevator.getPlanSize() == 0) {
+            elevator = Scenarios.withQueuedStates(floors, queuedStates);
+        }
+        return elevator.advanceToNextState();
+    }
+}
@@ -0,0 +1,88 @@
+package com.example;
+
+import javax.annotation.Nonnull;
+
+/**
+ * (Immutable) Something the {@link ElevatorApp} has to react to:
+ * a line typed in by the user, the end of the input, or a new state of an elevator car.
+ */
+final class AppEvent {
+
+    enum Kind {
+        USER_COMMAND,
+        END_OF_INPUT,
+        STATE_CHANGED
+    }
+
+    private static final AppEvent END_OF_INPUT = new AppEvent(Kind.END_OF_INPUT, null, null, null, null);
+
+    @Nonnull
+    private final Kind kind;
+    private final String userCommand;
+    private final Elevator car;
+    private final ElevatorState previousState;
+    private final ElevatorState newState;
+
+    private AppEvent(@Nonnull final Kind kind,
+                     final String userCommand,
+                     final Elevator car,
+                     final ElevatorState previousState,
+                     final ElevatorState newState) {
+        this.kind = kind;
+        this.userCommand = userCommand;
+        this.car = car;
+        this.previousState = previousState;
+        this.newState = newState;
+    }
+
+    @Nonnull
+    static AppEvent userCommand(@Nonnull final String userCommand) {
+        return new AppEvent(Kind.USER_COMMAND, userCommand, null, null, null);
+    }
+
+    @Nonnull
+    static AppEvent endOfInput() {
+        return END_OF_INPUT;
+    }
+
+    @Nonnull
+    static AppEvent stateChanged(@Nonnull final Elevator car,
+                                 final ElevatorState previousState,
+                                 final ElevatorState newState) {
+        return new AppEvent(Kind.STATE_CHANGED, null, car, previousState, newState);
+    }
+
+    @Override
+    public String toString() {
+        return "AppEvent{" +
+                "kind=" + kind +
+                (userCommand != null ? ", userCommand=" + userCommand : "") +
+                (newState != null ? ", newState=" + newState : "") +
+                '}';
+    }
+
+    /* --------
+     * Getters
+     */
+
+    @Nonnull
+    public Kind getKind() {
+        return kind;
+    }
+
+    public String getUserCommand() {
+        return userCommand;
+    }
+
+    public Elevator getCar() {
+        return car;
+    }
+
+    public ElevatorState getPreviousState() {
+        return previousState;
+    }
+
+    public ElevatorState getNewState() {
+        return newState;
+    }
+}
@@ -0,0 +1,194 @@
+package com.example;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nonnull;
+import java.lang.invoke.MethodHandles;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Delivers the transitions to another listener on its own thread, so a slow listener
+ * (e.g. writing to the console) does not hold up the elevator.
+ * <p>
+ * The transitions are published into a bounded ring buffer and delivered in order, in batches:
+ * the consumer takes everything queued so far at once. When the buffer is full,
+ * the {@link ListenerOverflowPolicy} decides whether the elevator waits or a transition is lost.
+ * <p>
+ * Closing delivers what is already queued and stops the thread.
+ */
+public class AsyncStateListener implements ElevatorStateListener, AutoCloseable {
+    private final static Logger log = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+
+    private static final long CLOSE_TIMEOUT_IN_SECONDS = 5;
+
+    private final ElevatorStateListener delegate;
+    private final ListenerOverflowPolicy policy;
+    private final ElevatorState[] previousStates;
+    private final ElevatorState[] newStates;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+    private final Condition notFull = lock.newCondition();
+    private final Thread consumer;
+
+    // guarded by lock
+    private int head; // index of the oldest queued transition
+    private int count;
+    private long droppedCount;
+    private long conflatedCount;
+    private boolean closed;
+
+    public AsyncStateListener(@Nonnull final ElevatorStateListener delegate,
+                              final int capacity,
+                              @Nonnull final ListenerOverflowPolicy policy) {
+        if (capacity < 1) {
+            throw new ElevatorException("Please provide the listener buffer capacity greater than zero.");
+        }
+        this.delegate = delegate;
+        this.policy = policy;
+        this.previousStates = new ElevatorState[capacity];
+        this.newStates = new ElevatorState[capacity];
+        consumer = new Thread(this::consume, "elevator-listener");
+        consumer.setDaemon(true);
+        consumer.start();
+    }
+
+    @Override
+    public void stateChanged(final ElevatorState previousState,
+                             final ElevatorState newState) {
+        lock.lock();
+        try {
+            if (count == newStates.length) {
+                switch (policy) {
+                    case BLOCK:
+                        try {
+                            while (count == newStates.length && !closed) {
+                                notFull.await();
+                            }
+                        } catch (final InterruptedException e) {
+                            // e.g. the dispatcher is being stopped: it must not wait for the listener forever
+                            Thread.currentThread().interrupt();
+                            droppedCount++;
+                            log.debug("Interrupted while waiting for the listener, a transition is lost: {}", newState);
+                            return;
+                        }
+                        break;
+                    case DROP_OLDEST:
+                        previousStates[head] = null;
+                        newStates[head] = null;
+                        head = (head + 1) % newStates.length;
+                        count--;
+                        droppedCount++;
+                        break;
+                    case CONFLATE:
+                        newStates[(head + count - 1) % newStates.length] = newState;
+                        conflatedCount++;
+                        return;
+                    default:
+                        throw new IllegalStateException("Internal error: Unexpected overflow policy: " + policy);
+                }
+            }
+            if (closed) {
+                log.debug("The listener is closed, a transition is ignored: {}", newState);
+                return;
+            }
+            final int tail = (head + count) % newStates.length;
+            previousStates[tail] = previousState;
+            newStates[tail] = newState;
+            count++;
+            notEmpty.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void consume() {
+        final ElevatorState[] batchPreviousStates = new ElevatorState[newStates.length];
+        final ElevatorState[] batchNewStates = new ElevatorState[newStates.length];
+        while (true) {
+            final int batchSize;
+            lock.lock();
+            try {
+                while (count == 0 && !closed) {
+                    notEmpty.await();
+                }
+                if (count == 0) {
+                    break;
+                }
+                batchSize = count;
+                for (int i = 0; i < batchSize; i++) {
+                    final int index = (head + i) % newStates.length;
+                    batchPreviousStates[i] = previousStates[index];
+                    batchNewStates[i] = newStates[index];
+                    previousStates[index] = null;
+                    newStates[index] = null;
+                }
+                head = (head + batchSize) % newStates.length;
+                count = 0;
+                notFull.signalAll();
+            } catch (final InterruptedException e) {
+                log.debug("The listener thread has been interrupted.");
+                break;
+            } finally {
+                lock.unlock();
+            }
+            for (int i = 0; i < batchSize; i++) {
+                try {
+                    delegate.stateChanged(batchPreviousStates[i], batchNewStates[i]);
+                } catch (final RuntimeException e) {
+                    log.error("A listener has failed on " + batchNewStates[i], e);
+                }
+                batchPreviousStates[i] = null;
+                batchNewStates[i] = null;
+            }
+        }
+        log.debug("The listener thread has stopped.");
+    }
+
+    @Override
+    public void close() {
+        lock.lock();
+        try {
+            closed = true;
+            notEmpty.signalAll();
+            notFull.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        try {
+            consumer.join(TimeUnit.SECONDS.toMillis(CLOSE_TIMEOUT_IN_SECONDS));
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (consumer.isAlive()) {
+            log.warn("The listener thread has not finished in time, some transitions may be lost.");
+        }
+    }
+
+    /**
+     * @return the number of transitions lost because of {@link ListenerOverflowPolicy#DROP_OLDEST},
+     * or because the thread waiting with {@link ListenerOverflowPolicy#BLOCK} has been interrupted
+     */
+    public long getDroppedCount() {
+        lock.lock();
+        try {
+            return droppedCount;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return the number of transitions merged because of {@link ListenerOverflowPolicy#CONFLATE}
+     */
+    public long getConflatedCount() {
+        lock.lock();
+        try {
+            return conflatedCount;
+        } finally {
+            lock.unlock();
+        }
+    }
+}
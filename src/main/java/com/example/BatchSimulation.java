@@ -0,0 +1,219 @@
+package com.example;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nonnull;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Replays a call trace through an {@link ElevatorBank} on a {@link VirtualClock}, without any user interaction:
+ * the clock jumps straight from one call or planned state to the next one.
+ * <p>
+ * Every passenger calls an elevator at the given moment, enters the car assigned to the call
+ * when it opens the doors at the passenger's floor, rides to the destination and goes out there.
+ */
+public class BatchSimulation {
+    private final static Logger log = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+
+    private final ElevatorSettings settings;
+    private final List<TraceCall> calls;
+    private final ElevatorMetrics metrics; // null if not measured
+    private final StateJournal journal; // null if not journaled
+    private final boolean planOnCallerThread;
+
+    public BatchSimulation(@Nonnull final ElevatorSettings settings,
+                           @Nonnull final List<TraceCall> calls) {
+        this(settings, calls, null, null);
+    }
+
+    /**
+     * @param metrics also gets the wait and ride times of the passengers, in the simulated time; may be null
+     * @param journal gets every transition of every car; may be null
+     */
+    public BatchSimulation(@Nonnull final ElevatorSettings settings,
+                           @Nonnull final List<TraceCall> calls,
+                           final ElevatorMetrics metrics,
+                           final StateJournal journal) {
+        this(settings, calls, metrics, journal, false);
+    }
+
+    /**
+     * @param planOnCallerThread plan on the thread of {@link #run} instead of the planner threads of the cars,
+     *                           e.g. when many simulations run in parallel
+     */
+    public BatchSimulation(@Nonnull final ElevatorSettings settings,
+                           @Nonnull final List<TraceCall> calls,
+                           final ElevatorMetrics metrics,
+                           final StateJournal journal,
+                           final boolean planOnCallerThread) {
+        this.settings = settings;
+        this.metrics = metrics;
+        this.journal = journal;
+        this.planOnCallerThread = planOnCallerThread;
+        final List<TraceCall> sorted = new ArrayList<>(calls);
+        sorted.sort(Comparator.comparingLong(TraceCall::getOffsetNanos));
+        this.calls = Collections.unmodifiableList(sorted);
+    }
+
+    /**
+     * Reads a trace file, skipping empty lines and comments starting with '#'.
+     */
+    @Nonnull
+    public static List<TraceCall> readTrace(@Nonnull final Path file) throws IOException {
+        final List<TraceCall> result = new ArrayList<>();
+        try (final BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                final String trimmed = line.trim();
+                if (!trimmed.isEmpty() && !trimmed.startsWith("#")) {
+                    result.add(TraceCall.parse(trimmed, lineNumber));
+                }
+            }
+        }
+        log.info("{} calls read from {}", result.size(), file);
+        return result;
+    }
+
+    /**
+     * A passenger on the way.
+     */
+    private static final class Trip {
+        private final TraceCall call;
+        private final long calledEpochNanos;
+        private long enteredEpochNanos;
+
+        private Trip(@Nonnull final TraceCall call,
+                     final long calledEpochNanos) {
+            this.call = call;
+            this.calledEpochNanos = calledEpochNanos;
+        }
+    }
+
+    /**
+     * The doors of a car have opened.
+     */
+    private static final class Stop {
+        private final Elevator car;
+        private final ElevatorState state;
+
+        private Stop(@Nonnull final Elevator car,
+                     @Nonnull final ElevatorState state) {
+            this.car = car;
+            this.state = state;
+        }
+    }
+
+    @Nonnull
+    public SimulationReport run() throws InterruptedException {
+        final long startedNanos = System.nanoTime();
+        final VirtualClock clock = new VirtualClock();
+        final long startEpochNanos = clock.epochNanos();
+        final Map<Elevator, List<Trip>> waiting = new HashMap<>();
+        final Map<Elevator, List<Trip>> riding = new HashMap<>();
+        // filled by the listeners, which may run on the planner threads of the cars
+        final Queue<Stop> stops = new ConcurrentLinkedQueue<>();
+
+        int delivered = 0;
+        long totalWaitNanos = 0L;
+        long maxWaitNanos = 0L;
+        long totalRideNanos = 0L;
+        long maxRideNanos = 0L;
+        int stopCount = 0;
+        int maxPlanSize = 0;
+        long planSizeSum = 0L;
+        long steps = 0L;
+
+        try (final ElevatorBank bank = settings.createBank(clock, planOnCallerThread)) {
+            bank.setMetrics(metrics);
+            for (final Elevator car : bank.getCars()) {
+                waiting.put(car, new ArrayList<>());
+                riding.put(car, new ArrayList<>());
+                if (journal != null) {
+                    car.addListener(journal.listenerFor(bank.numberOf(car)));
+                }
+                car.addListener((previousState, newState) -> {
+                    if (newState.getDoorsState() == DoorsState.OPENED) {
+                        stops.add(new Stop(car, newState));
+                    }
+                });
+            }
+            int nextCall = 0;
+            while (true) {
+                final long callEpochNanos = nextCall < calls.size()
+                                            ? startEpochNanos + calls.get(nextCall).getOffsetNanos()
+                                            : Long.MAX_VALUE;
+                final long moment = Math.min(callEpochNanos, bank.nextPlannedEpochNanos());
+                if (moment == Long.MAX_VALUE) {
+                    break;
+                }
+                clock.advanceToEpochNanos(moment);
+                bank.pollCurrentStates();
+                while (nextCall < calls.size()
+                        && startEpochNanos + calls.get(nextCall).getOffsetNanos() <= clock.epochNanos()) {
+                    final TraceCall call = calls.get(nextCall++);
+                    final Elevator car = bank.callTo(call.getFloor()).join();
+                    waiting.get(car).add(new Trip(call, clock.epochNanos()));
+                }
+                Stop stop;
+                while ((stop = stops.poll()) != null) {
+                    stopCount++;
+                    final int floor = stop.state.getFloor();
+                    final long now = stop.state.getPlannedEpochNanos();
+                    final Iterator<Trip> inside = riding.get(stop.car).iterator();
+                    while (inside.hasNext()) {
+                        final Trip trip = inside.next();
+                        if (trip.call.getDestination() == floor) {
+                            inside.remove();
+                            delivered++;
+                            final long waitNanos = trip.enteredEpochNanos - trip.calledEpochNanos;
+                            final long rideNanos = now - trip.enteredEpochNanos;
+                            totalWaitNanos += waitNanos;
+                            maxWaitNanos = Math.max(maxWaitNanos, waitNanos);
+                            totalRideNanos += rideNanos;
+                            maxRideNanos = Math.max(maxRideNanos, rideNanos);
+                            if (metrics != null) {
+                                metrics.recordHallCallWait(waitNanos);
+                                metrics.recordRide(rideNanos);
+                            }
+                        }
+                    }
+                    final List<Integer> destinations = new ArrayList<>();
+                    final Iterator<Trip> outside = waiting.get(stop.car).iterator();
+                    while (outside.hasNext()) {
+                        final Trip trip = outside.next();
+                        if (trip.call.getFloor() == floor) {
+                            outside.remove();
+                            trip.enteredEpochNanos = now;
+                            riding.get(stop.car).add(trip);
+                            destinations.add(trip.call.getDestination());
+                        }
+                    }
+                    if (!destinations.isEmpty()) {
+                        bank.rideAll(stop.car, destinations).join();
+                    }
+                }
+                final int planSize = bank.getPlanSize();
+                maxPlanSize = Math.max(maxPlanSize, planSize);
+                planSizeSum += planSize;
+                steps++;
+            }
+        }
+        if (delivered < calls.size()) {
+            log.warn("{} of {} passengers have not been delivered", calls.size() - delivered, calls.size());
+        }
+        return new SimulationReport(settings, calls.size(), delivered,
+                totalWaitNanos, maxWaitNanos, totalRideNanos, maxRideNanos, stopCount,
+                maxPlanSize, steps == 0 ? 0.0d : (double) planSizeSum / steps,
+                clock.epochNanos() - startEpochNanos, System.nanoTime() - startedNanos);
+    }
+}
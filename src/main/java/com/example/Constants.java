@@ -4,8 +4,8 @@ public interface Constants {
 
     double DOUBLE_DELTA = 0.001d;
     long NANOS_PER_SECOND = 1000L * 1000L * 1000L;
-    int MIN_FLOORS = 5;
-    int MAX_FLOORS = 20;
+    int MIN_FLOORS = 2; // including the basements
+    int MAX_FLOORS = 10_000;
     long DOORS_OPENING_TIME_IN_MILLIS = 100;
 
     static int signum(final double d) {
@@ -0,0 +1,35 @@
+package com.example;
+
+enum Direction {
+    UP,
+    NEUTRAL,
+    DOWN;
+
+    public static Direction of(final double d) {
+        final int signum = Constants.signum(d);
+        switch (signum) {
+            case -1:
+                return DOWN;
+            case 0:
+                return NEUTRAL;
+            case 1:
+                return UP;
+            default:
+                throw new IllegalStateException("Internal error: Unexpected result from our signum(): " + signum);
+        }
+    }
+
+    public static Direction of(final int n) {
+        final int signum = Integer.signum(n);
+        switch (signum) {
+            case -1:
+                return DOWN;
+            case 0:
+                return NEUTRAL;
+            case 1:
+                return UP;
+            default:
+                throw new IllegalStateException("Internal error: Unexpected result from Integer.signum(): " + signum);
+        }
+    }
+}
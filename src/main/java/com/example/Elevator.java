@@ -5,12 +5,11 @@ import org.slf4j.LoggerFactory;
 
 import javax.annotation.Nonnull;
 import java.lang.invoke.MethodHandles;
-import java.time.Duration;
 import java.time.Instant;
 import java.util.*;
-import java.util.concurrent.ConcurrentLinkedDeque;
 import java.util.concurrent.ConcurrentLinkedQueue;
-import java.util.concurrent.DelayQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 
 import static com.example.Constants.*;
 
@@ -19,89 +18,399 @@ public class Elevator {
 
     private final ConcurrentLinkedQueue<ElevatorStateListener> stateListeners;
 
-    private final int minFloor;
-    private final int maxFloor; // from 5 to 20 inclusive
+    private final int minFloor; // may be zero or negative for the basements
+    private final int maxFloor; // from MIN_FLOORS to MAX_FLOORS floors together with minFloor
+    private final int lobbyFloor;
     private final double height; // in meters
-    private final double speed; // in meters per second; acceleration and deceleration are ignored in our simulation
+    private final double speed; // in meters per second; the maximum one, if the kinematics are given
+    private final Kinematics kinematics; // null if the elevator starts and stops at once
     private final long timeoutInNanos; // time period between opening and closing the doors, in nanoseconds;
+    private final SimulationClock clock;
 
-    private final ConcurrentLinkedDeque<ElevatorState> currentState;
-    private final DelayQueue<ElevatorState> stateDelayQueue;
+    private final AtomicReference<ElevatorSnapshot> snapshot; // read without locking
+    private final ElevatorPlan plan; // guarded by this
     private final long nanosPerFloor;
+    private final long[] travelNanosByFloors; // precomputed for every trip length, up to the whole building
+    private final PlannerType plannerType;
+    private final MovementPlanner planner; // guarded by this
+    private volatile Thread dispatcher; // changed under the lock of this
+    private volatile ElevatorMetrics metrics; // null unless measured
+    private volatile ElevatorTrace trace; // null unless traced; changed under the lock of this
+    // the lit buttons: the floors with a planned stop which has not opened the doors yet; read without locking
+    private final FloorFlags pendingHallCalls;
+    private final FloorFlags pendingCarCalls;
 
     public Elevator(final int maxFloor,
                     final double height,
                     final double speed,
                     final double timeoutInSeconds) {
-        minFloor = 1;
+        this(maxFloor, height, speed, timeoutInSeconds, WallClock.INSTANCE);
+    }
 
-        if (maxFloor < MIN_FLOORS || maxFloor > MAX_FLOORS) {
-            throw new ElevatorException("Please provide the number of floors between 5 and 20.");
-        }
+    public Elevator(final int maxFloor,
+                    final double height,
+                    final double speed,
+                    final double timeoutInSeconds,
+                    @Nonnull final SimulationClock clock) {
+        this(maxFloor, height, speed, timeoutInSeconds, clock, PlannerType.EXCURSIONS);
+    }
+
+    public Elevator(final int maxFloor,
+                    final double height,
+                    final double speed,
+                    final double timeoutInSeconds,
+                    @Nonnull final SimulationClock clock,
+                    @Nonnull final PlannerType plannerType) {
+        this(1, maxFloor, height, speed, timeoutInSeconds, clock, plannerType);
+    }
+
+    /**
+     * @param minFloor the lowest floor, zero or negative if there are basements
+     * @param maxFloor the highest floor
+     */
+    public Elevator(final int minFloor,
+                    final int maxFloor,
+                    final double height,
+                    final double speed,
+                    final double timeoutInSeconds,
+                    @Nonnull final SimulationClock clock,
+                    @Nonnull final PlannerType plannerType) {
+        this(minFloor, maxFloor, height, speed, timeoutInSeconds, clock, plannerType, null);
+    }
+
+    /**
+     * @param speed      the maximum speed, if the kinematics are given
+     * @param kinematics how the elevator speeds up and slows down; null if it starts and stops at once
+     */
+    public Elevator(final int minFloor,
+                    final int maxFloor,
+                    final double height,
+                    final double speed,
+                    final double timeoutInSeconds,
+                    @Nonnull final SimulationClock clock,
+                    @Nonnull final PlannerType plannerType,
+                    final Kinematics kinematics) {
+        this.clock = clock;
+
+        checkParameters(minFloor, maxFloor, height, speed, timeoutInSeconds);
+        this.minFloor = minFloor;
         this.maxFloor = maxFloor;
+        lobbyFloor = lobbyFloorOf(minFloor, maxFloor);
+        this.height = height;
+        this.speed = speed;
+        this.timeoutInNanos = (long) (timeoutInSeconds * NANOS_PER_SECOND);
+
+        final ElevatorState currState = new ElevatorState(getCurrentInstant(), lobbyFloor, DoorsState.CLOSED, 0.0f);
+        plan = new ElevatorPlan(minFloor, maxFloor);
+        pendingHallCalls = new FloorFlags(minFloor, maxFloor);
+        pendingCarCalls = new FloorFlags(minFloor, maxFloor);
+        plan.append(PlanSegment.of(currState), currState.getPlannedEpochNanos());
 
+        snapshot = new AtomicReference<>(new ElevatorSnapshot(currState, plan.size(), plan.peekFirstEpochNanos()));
+
+        stateListeners = new ConcurrentLinkedQueue<>();
+
+        this.plannerType = plannerType;
+        nanosPerFloor = (long) (NANOS_PER_SECOND * getHeight() / getSpeed());
+        this.kinematics = kinematics;
+        // one floor more than the building: at a constant speed, an excursion upwards counts the floor it starts from
+        final int maxTripFloors = maxFloor - minFloor + 1;
+        if (kinematics == null) {
+            travelNanosByFloors = new long[maxTripFloors + 1];
+            for (int floors = 1; floors <= maxTripFloors; floors++) {
+                travelNanosByFloors[floors] = floors * nanosPerFloor;
+            }
+        } else {
+            travelNanosByFloors = kinematics.travelNanosTable(height, speed, maxTripFloors);
+        }
+        planner = plannerType.create(this);
+        log.debug("Created: {}", this);
+    }
+
+    /**
+     * @throws ElevatorException if an elevator cannot be built with these parameters
+     */
+    static void checkParameters(final int minFloor,
+                                final int maxFloor,
+                                final double height,
+                                final double speed,
+                                final double timeoutInSeconds) {
+        if ((long) maxFloor - minFloor + 1 < MIN_FLOORS || (long) maxFloor - minFloor + 1 > MAX_FLOORS) {
+            throw new ElevatorException("Please provide the number of floors between " + MIN_FLOORS +
+                    " and " + MAX_FLOORS + ", from # " + minFloor + " to # " + maxFloor + " is wrong.");
+        }
         if (height <= 0.0f) {
             throw new ElevatorException("Please provide the floor height greater than zero.");
         }
-        this.height = height;
-
         if (speed <= 0.0f) {
             throw new ElevatorException("Please provide the elevator speed greater than zero.");
         }
-        this.speed = speed;
-
         if (timeoutInSeconds <= 0.0f) {
             throw new ElevatorException("Please provide the elevator open doors timeout greater than zero.");
         }
-        this.timeoutInNanos = (long) (timeoutInSeconds * NANOS_PER_SECOND);
-
-        final ElevatorState currState = new ElevatorState(getCurrentInstant(), 1, DoorsState.CLOSED, 0.0f);
-        stateDelayQueue = new DelayQueue<>();
-        stateDelayQueue.add(currState);
-
-        currentState = new ConcurrentLinkedDeque<>();
-        currentState.addFirst(currState);
-
-        stateListeners = new ConcurrentLinkedQueue<>();
+    }
 
-        log.debug("Created: " + this);
-        nanosPerFloor = (long) (NANOS_PER_SECOND * getHeight() / getSpeed());
+    /**
+     * @return the first floor, or the nearest one to it among the given floors
+     */
+    static int lobbyFloorOf(final int minFloor,
+                            final int maxFloor) {
+        return Math.max(minFloor, Math.min(1, maxFloor));
     }
 
-    private static Instant getCurrentInstant() {
-        return Instant.now();
+    private Instant getCurrentInstant() {
+        return clock.instant();
     }
 
     @Override
     public String toString() {
         return "Elevator{" +
-                "floors=" + maxFloor +
+                "floors=" + (minFloor == 1 ? String.valueOf(maxFloor) : minFloor + ".." + maxFloor) +
                 ", height=" + height +
                 ", speed=" + speed +
                 ", timeout=" + getTimeoutInSeconds() +
+                (kinematics == null ? "" : ", kinematics=" + kinematics) +
+                ", planner=" + plannerType +
                 '}';
     }
 
+    /**
+     * Applies every state which is due by now.
+     *
+     * @return the current state
+     */
     synchronized
     public ElevatorState pollCurrentState() {
-        ElevatorState newState;
-        while ((newState = stateDelayQueue.poll()) != null) {
-            updateState(newState);
+        final long now = clock.epochNanos();
+        if (plan.peekFirstEpochNanos() <= now) {
+            try {
+                do {
+                    updateState(plan.pollFirst());
+                } while (plan.peekFirstEpochNanos() <= now);
+            } catch (final RuntimeException e) {
+                throw dumpTrace(e);
+            }
+            publishPlan();
+        }
+        return getSnapshot().getCurrentState();
+    }
+
+    /**
+     * Lock-free, unless a due state has to be applied and there is no dispatcher to do that.
+     * With a dispatcher, the state may be behind the clock by the wake-up latency of the dispatcher.
+     *
+     * @return the current state
+     */
+    @Nonnull
+    public ElevatorState getCurrentState() {
+        final ElevatorSnapshot current = getSnapshot();
+        if (dispatcher == null && current.getNextPlannedEpochNanos() <= clock.epochNanos()) {
+            return pollCurrentState();
+        }
+        return current.getCurrentState();
+    }
+
+    /**
+     * @return the last published view of the elevator; lock-free
+     */
+    @Nonnull
+    public ElevatorSnapshot getSnapshot() {
+        return snapshot.get();
+    }
+
+    /**
+     * Publishes the summary of the plan after it has been changed (under the lock of this).
+     */
+    private void publishPlan() {
+        final int planSize = plan.size();
+        final long nextPlannedEpochNanos = plan.peekFirstEpochNanos();
+        snapshot.updateAndGet(current -> current.withPlan(planSize, nextPlannedEpochNanos));
+        final ElevatorMetrics currentMetrics = metrics;
+        if (currentMetrics != null) {
+            currentMetrics.recordPlanSize(planSize);
+        }
+    }
+
+    /**
+     * Starts (or, with null, stops) measuring this elevator.
+     */
+    public void setMetrics(final ElevatorMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * Starts (or, with null, stops) recording the events of this elevator.
+     */
+    synchronized
+    public void setTrace(final ElevatorTrace trace) {
+        this.trace = trace;
+        plan.setTrace(trace);
+    }
+
+    /**
+     * @return the trace of this elevator, or null if it is not traced
+     */
+    public ElevatorTrace getTrace() {
+        return trace;
+    }
+
+    /**
+     * Logs the latest events of the elevator, if it is traced, to tell how it has come to the error.
+     *
+     * @return the error
+     */
+    @Nonnull
+    private RuntimeException dumpTrace(@Nonnull final RuntimeException e) {
+        final ElevatorTrace currentTrace = trace;
+        if (currentTrace != null) {
+            log.error("{} has failed: {}, the latest events:\n{}", this, e.toString(), currentTrace.dump());
+        }
+        return e;
+    }
+
+    /**
+     * Starts a daemon thread which applies every planned state at its planned moment,
+     * so the listeners are notified without anyone polling the elevator.
+     * The thread sleeps until the next planned state and is woken up whenever the plan changes.
+     * <p>
+     * Only for the real time: a {@link VirtualClock} is moved on by {@link #advanceTo(Instant)}.
+     */
+    synchronized
+    public void startDispatcher() {
+        if (clock instanceof VirtualClock) {
+            throw new ElevatorException("The dispatcher follows the real time, but " + clock + " is used.");
+        }
+        if (dispatcher != null) {
+            return;
+        }
+        dispatcher = new Thread(this::dispatch, "elevator-dispatcher");
+        dispatcher.setDaemon(true);
+        dispatcher.start();
+    }
+
+    synchronized
+    public void stopDispatcher() {
+        if (dispatcher != null) {
+            dispatcher.interrupt();
+            dispatcher = null;
+        }
+    }
+
+    /**
+     * A failure to apply a state (e.g. in a listener) is logged, and the dispatcher goes on with the next one:
+     * the failed state is consumed already. Should the thread die anyway, the callers poll the elevator again.
+     */
+    synchronized
+    private void dispatch() {
+        log.debug("The dispatcher has started.");
+        try {
+            while (dispatcher == Thread.currentThread()) {
+                final long next = plan.peekFirstEpochNanos();
+                if (next == Long.MAX_VALUE) {
+                    wait();
+                } else {
+                    final long delay = next - clock.epochNanos();
+                    if (delay > 0) {
+                        TimeUnit.NANOSECONDS.timedWait(this, delay);
+                    } else {
+                        try {
+                            pollCurrentState(); // the trace, if any, is dumped by now
+                        } catch (final RuntimeException e) {
+                            log.error(this + " has failed to apply a planned state, the dispatcher goes on.", e);
+                        }
+                    }
+                }
+            }
+        } catch (final InterruptedException e) {
+            log.debug("The dispatcher has been interrupted.");
+        } finally {
+            if (dispatcher == Thread.currentThread()) {
+                dispatcher = null;
+            }
+        }
+        log.debug("The dispatcher has stopped.");
+    }
+
+    /**
+     * Discrete-event stepping, only available with a {@link VirtualClock}:
+     * moves the clock straight to the next planned state and applies it.
+     *
+     * @return false if there was nothing planned
+     */
+    synchronized
+    public boolean advanceToNextState() {
+        final VirtualClock virtualClock = getVirtualClock();
+        if (plan.isEmpty()) {
+            return false;
+        }
+        virtualClock.advanceToEpochNanos(plan.peekFirstEpochNanos());
+        pollCurrentState();
+        return true;
+    }
+
+    /**
+     * Discrete-event stepping, only available with a {@link VirtualClock}:
+     * applies every state planned up to the given instant, jumping the clock from one state to another.
+     */
+    synchronized
+    public ElevatorState advanceTo(@Nonnull final Instant until) {
+        final VirtualClock virtualClock = getVirtualClock();
+        final long untilEpochNanos = SimulationClock.toEpochNanos(until);
+        long next;
+        while ((next = plan.peekFirstEpochNanos()) <= untilEpochNanos) {
+            virtualClock.advanceToEpochNanos(next);
+            pollCurrentState();
+        }
+        virtualClock.advanceToEpochNanos(untilEpochNanos);
+        return pollCurrentState();
+    }
+
+    /**
+     * @return the moment of the next planned state, or {@link Long#MAX_VALUE} if nothing is planned
+     */
+    public long nextPlannedEpochNanos() {
+        return getSnapshot().getNextPlannedEpochNanos();
+    }
+
+    private VirtualClock getVirtualClock() {
+        if (!(clock instanceof VirtualClock)) {
+            throw new ElevatorException("Discrete-event stepping requires a virtual clock, but " + clock + " is used.");
         }
-        return currentState.getFirst();
+        return (VirtualClock) clock;
     }
 
     public void updateState(final ElevatorState newState) {
-        log.debug("newCurrentState(" + newState + ")");
+        log.debug("newCurrentState({})", newState);
         if (newState.getFloor() > getMaxFloor()) {
             throw new ElevatorException("" + newState.getFloor() + " exceeds " + getMaxFloor() + " max limit.");
         }
         if (newState.getFloor() < getMinFloor()) {
-            throw new ElevatorException("" + newState.getFloor() + " is below " + getMaxFloor() + "minimum limit.");
+            throw new ElevatorException("" + newState.getFloor() + " is below " + getMinFloor() + " min limit.");
+        }
+        if (newState.getDoorsState() == DoorsState.OPENED) {
+            pendingHallCalls.remove(newState.getFloor());
+            pendingCarCalls.remove(newState.getFloor());
+        }
+        final ElevatorState previousState = snapshot.getAndUpdate(current -> current.withCurrentState(newState))
+                                                    .getCurrentState();
+        final ElevatorMetrics currentMetrics = metrics;
+        final ElevatorTrace currentTrace = trace;
+        if (currentMetrics == null && currentTrace == null) {
+            stateListeners.forEach(listener -> listener.stateChanged(previousState, newState));
+        } else {
+            if (currentTrace != null) {
+                currentTrace.record(TraceEvent.APPLIED, newState, 0L);
+            }
+            final long startedNanos = System.nanoTime();
+            stateListeners.forEach(listener -> listener.stateChanged(previousState, newState));
+            final long dispatchNanos = System.nanoTime() - startedNanos;
+            if (currentMetrics != null) {
+                currentMetrics.recordListenerDispatch(dispatchNanos);
+            }
+            if (currentTrace != null) {
+                currentTrace.record(TraceEvent.DISPATCHED, newState, dispatchNanos);
+            }
         }
-        currentState.addFirst(newState);
-        final ElevatorState previousState = currentState.removeLast();
-        stateListeners.forEach(listener -> listener.stateChanged(previousState, newState));
     }
 
     public void addListener(final ElevatorStateListener listener) {
@@ -109,241 +418,204 @@ public class Elevator {
     }
 
     public void callTo(final int targetFloor) {
-        log.debug("Elevator.callTo(" + targetFloor + ")");
-        planMovement(targetFloor);
+        log.debug("Elevator.callTo({})", targetFloor);
+        planMovement(TraceEvent.CALL, targetFloor);
     }
 
     public void rideTo(final int targetFloor) {
-        log.debug("Elevator.rideTo(" + targetFloor + ")");
-        planMovement(targetFloor);
-    }
-
-    private enum Direction {
-        UP,
-        NEUTRAL,
-        DOWN;
-
-        public static Direction of(final double d) {
-            final int signum = Constants.signum(d);
-            switch (signum) {
-                case -1:
-                    return DOWN;
-                case 0:
-                    return NEUTRAL;
-                case 1:
-                    return UP;
-                default:
-                    throw new IllegalStateException("Internal error: Unexpected result from our signum(): " + signum);
-            }
+        log.debug("Elevator.rideTo({})", targetFloor);
+        planMovement(TraceEvent.RIDE, targetFloor);
+    }
+
+    /**
+     * Plans many hall and car calls with a single publication of the plan and a single wake-up of the dispatcher.
+     * The result is the same as calling them one by one, in the given order.
+     * All the floors are checked before anything is planned, so a wrong one leaves the plan as it was.
+     */
+    synchronized
+    public void planAll(@Nonnull final Collection<ElevatorRequest> requests) {
+        log.debug("Elevator.planAll({} requests)", requests.size());
+        for (final ElevatorRequest request : requests) {
+            checkTargetFloor(request.getFloor());
+        }
+        final ElevatorMetrics currentMetrics = metrics;
+        final long startedNanos = currentMetrics == null ? 0L : System.nanoTime();
+        boolean changed = false;
+        for (final ElevatorRequest request : requests) {
+            changed |= addToPlan(request.isHallCall() ? TraceEvent.CALL : TraceEvent.RIDE, request.getFloor());
+        }
+        if (currentMetrics != null) {
+            currentMetrics.recordPlanning(System.nanoTime() - startedNanos);
         }
+        if (changed) {
+            publishPlan();
+            notifyAll(); // the dispatcher may have to wake up earlier now
+        }
+    }
 
-        public static Direction of(final int n) {
-            final int signum = Integer.signum(n);
-            switch (signum) {
-                case -1:
-                    return DOWN;
-                case 0:
-                    return NEUTRAL;
-                case 1:
-                    return UP;
-                default:
-                    throw new IllegalStateException("Internal error: Unexpected result from Integer.signum(): " + signum);
-            }
+    synchronized
+    private void planMovement(@Nonnull final TraceEvent event,
+                              final int targetFloor) {
+        checkTargetFloor(targetFloor);
+        final ElevatorMetrics currentMetrics = metrics;
+        final long startedNanos = currentMetrics == null ? 0L : System.nanoTime();
+        final boolean changed = addToPlan(event, targetFloor);
+        if (currentMetrics != null) {
+            currentMetrics.recordPlanning(System.nanoTime() - startedNanos);
+        }
+        if (changed) {
+            publishPlan();
+            notifyAll(); // the dispatcher may have to wake up earlier now
+        }
+    }
+
+    /**
+     * Plans a stop at the given floor, unless it is planned already.
+     * A repeated call, while its button is still lit, is acknowledged at once, without looking at the plan;
+     * the due states are applied first, since the doors may have opened there by now.
+     * The caller holds the lock of this and publishes the plan afterwards.
+     *
+     * @return true if the plan has changed
+     */
+    private boolean addToPlan(@Nonnull final TraceEvent event,
+                              final int targetFloor) {
+        final ElevatorState currState = pollCurrentState();
+        final ElevatorTrace currentTrace = trace;
+        if (currentTrace != null) {
+            currentTrace.record(event, clock.epochNanos(), targetFloor, 0L);
+        }
+        final FloorFlags pending = event == TraceEvent.CALL ? pendingHallCalls : pendingCarCalls;
+        if (pending.contains(targetFloor)) {
+            log.debug("the floor # {} is already called", targetFloor);
+            return false;
+        }
+        final boolean changed;
+        try {
+            changed = planner.planStop(plan, currState, targetFloor);
+        } catch (final RuntimeException e) {
+            throw dumpTrace(e);
         }
+        if (changed && currentTrace != null) {
+            currentTrace.record(TraceEvent.PLANNED, clock.epochNanos(), targetFloor, plan.size());
+        }
+        pending.add(targetFloor); // a stop is planned there now, whether it is a new one or not
+        return changed;
+    }
+
+    /**
+     * Estimates when the elevator could be at the given floor if it were called there now,
+     * the way its {@link PlannerType planner} would serve the call.
+     * Nothing is planned by this method.
+     */
+    synchronized
+    public long estimateArrivalEpochNanos(final int targetFloor) {
+        checkTargetFloor(targetFloor);
+        final ElevatorState currState = pollCurrentState();
+        return planner.estimateArrivalEpochNanos(plan, currState, targetFloor);
+    }
+
+    /**
+     * Where the elevator is going to be at the given moment according to the current plan:
+     * the latest state planned by then, or the current state if nothing is planned by then.
+     * Any moment is answered, however far ahead: past the end of the plan it is the last planned state,
+     * where the elevator stays until it is called again.
+     * Nothing is applied or planned by this method; the lookup costs O(log n) in the size of the plan.
+     */
+    @Nonnull
+    synchronized
+    public ElevatorState positionAt(@Nonnull final Instant instant) {
+        final ElevatorState planned = plan.stateAt(SimulationClock.toEpochNanos(instant));
+        return planned == null
+               ? getSnapshot().getCurrentState()
+               : planned;
+    }
+
+    /**
+     * When the doors are going to open at the given floor next time according to the current plan;
+     * the moment may have come already if the state has not been applied yet.
+     * The answers are cached until the plan changes, so polling many floors is cheap.
+     *
+     * @return the moment, or null if no stop is planned at the floor
+     */
+    synchronized
+    public Instant nextArrival(final int floor) {
+        checkTargetFloor(floor);
+        final long epochNanos = plan.nextOpenedEpochNanos(floor);
+        return epochNanos == Long.MAX_VALUE
+               ? null
+               : SimulationClock.toInstant(epochNanos);
+    }
+
+    /**
+     * Lock-free: the hall button of the floor is lit until the elevator opens the doors there,
+     * so one more call to the floor is served by the stop which is planned already.
+     * The button is not trusted while any planned state is due but not applied yet,
+     * e.g. during the wake-up latency of the dispatcher: the doors may have opened there by now.
+     */
+    public boolean hasPendingHallCall(final int floor) {
+        return pendingHallCalls.contains(floor)
+                && getSnapshot().getNextPlannedEpochNanos() > clock.epochNanos();
+    }
+
+    /**
+     * Captures the current state and the whole pending plan, relative to the current moment.
+     *
+     * @see PlanSnapshot#write
+     */
+    @Nonnull
+    synchronized
+    public PlanSnapshot takeSnapshot() {
+        final ElevatorState currState = pollCurrentState();
+        final long now = clock.epochNanos();
+        final List<PlanSegment> segments = new ArrayList<>(plan.segmentCount());
+        final long[] offsetsNanos = new long[plan.segmentCount()];
+        plan.forEachSegment((segment, firstEpochNanos) -> {
+            offsetsNanos[segments.size()] = firstEpochNanos - now;
+            segments.add(segment);
+            return true;
+        });
+        return new PlanSnapshot(minFloor, maxFloor, nanosPerFloor, timeoutInNanos, currState, segments, offsetsNanos);
     }
 
+    /**
+     * Replaces the current state and the plan with the ones from the snapshot,
+     * shifted so that the snapshot was taken right now.
+     * The listeners are notified of the restored current state.
+     */
     synchronized
-    private void planMovement(final int targetFloor) {
-        log.trace("Elevator.planMovement() started...");
+    public void restore(@Nonnull final PlanSnapshot planSnapshot) {
+        checkSnapshot(planSnapshot);
+        final long now = clock.epochNanos();
+        plan.clear();
+        pendingHallCalls.clear(); // the restored stops are served as they are, the buttons are not lit again
+        pendingCarCalls.clear();
+        updateState(new ElevatorState(now, planSnapshot.getFloor(),
+                planSnapshot.getDoorsState(), planSnapshot.getSpeed()));
+        for (int i = 0; i < planSnapshot.getSegmentCount(); i++) {
+            plan.append(planSnapshot.getSegment(i), now + planSnapshot.getOffsetNanos(i));
+        }
+        log.debug("Restored: {} segments, {} states", plan.segmentCount(), plan.size());
+        publishPlan();
+        notifyAll(); // the dispatcher has to follow the new plan
+    }
+
+    void checkSnapshot(@Nonnull final PlanSnapshot planSnapshot) {
+        if (planSnapshot.getMinFloor() != minFloor
+                || planSnapshot.getMaxFloor() != maxFloor
+                || planSnapshot.getNanosPerFloor() != nanosPerFloor
+                || planSnapshot.getTimeoutInNanos() != timeoutInNanos) {
+            throw new ElevatorException("The snapshot was taken of another elevator (" + planSnapshot + ")," +
+                    " it does not fit " + this + ".");
+        }
+    }
 
+    void checkTargetFloor(final int targetFloor) {
         if (targetFloor > getMaxFloor()) {
             throw new ElevatorException("Sorry, we only have " + getMaxFloor() + " floors.");
         }
         if (targetFloor < getMinFloor()) {
-            throw new ElevatorException("Sorry, our lowest floor is # " + getMaxFloor() + ".");
+            throw new ElevatorException("Sorry, our lowest floor is # " + getMinFloor() + ".");
         }
-        final ElevatorState currState = pollCurrentState();
-        final Direction wantedDirection = Direction.of(targetFloor - currState.getFloor());
-        final ElevatorState[] sortedOldElementsArray =
-                stateDelayQueue.toArray(new ElevatorState[stateDelayQueue.size()]);
-        Arrays.sort(sortedOldElementsArray);
-        final TreeMap<Integer, TreeSet<ElevatorState>> stateMapByFloor = new TreeMap<>();
-        Arrays.stream(sortedOldElementsArray)
-              .forEach(element -> {
-                  stateMapByFloor.computeIfAbsent(element.getFloor(), k -> new TreeSet<>());
-                  stateMapByFloor.get(element.getFloor()).add(element);
-              });
-        final List<ElevatorState> newElements = new LinkedList<>();
-        final ElevatorState parentElement;
-        final Instant startTime;
-        Instant plannedTime;
-        final boolean allDone = stateMapByFloor.containsKey(targetFloor)
-                && stateMapByFloor.get(targetFloor).stream()
-                                  .anyMatch(state -> state.getDoorsState() == DoorsState.OPENED);
-        log.debug("allDone: " + allDone);
-        if (!allDone) {
-            switch (wantedDirection) {
-                case UP:
-                    if (!stateMapByFloor.isEmpty() && stateMapByFloor.containsKey(targetFloor)) {
-                        log.debug("parentElement = stateMapByFloor.get(targetFloor).last()");
-                        parentElement = stateMapByFloor.get(targetFloor).last();
-                    } else if (sortedOldElementsArray.length > 0) {
-                        log.debug("selecting the highest");
-                        int direction = 0;
-                        int indexOfHighest = sortedOldElementsArray.length - 1;
-                        for (int i = 0; i < sortedOldElementsArray.length; i++) {
-                            final ElevatorState element = sortedOldElementsArray[i];
-                            final int signum = signum(element.getSpeed());
-                            if (signum != 0) {
-                                direction = signum;
-                            }
-                            if (direction == 1 &&
-                                    Integer.compare(element.getFloor(),
-                                            sortedOldElementsArray[indexOfHighest].getFloor()) > 0) {
-                                indexOfHighest = i;
-                            }
-                        }
-                        parentElement = sortedOldElementsArray[indexOfHighest];
-                    } else {
-                        log.debug("parentElement = currState");
-                        parentElement = currState;
-                    }
-                    plannedTime = startTime = Constants.max(parentElement.getPlannedInstant(), getCurrentInstant());
-                    plannedTime = internalGoUpwards(parentElement.getFloor(), targetFloor, newElements, plannedTime);
-                    plannedTime = internalOpenDoors(targetFloor, newElements, plannedTime);
-                    if (isAnyoneLater(sortedOldElementsArray, startTime)) {
-                        plannedTime = internalGoDownwards(
-                                targetFloor, parentElement.getFloor(), newElements, plannedTime);
-                    }
-                    break;
-                case NEUTRAL:
-                    parentElement = currState;
-                    plannedTime = startTime = getCurrentInstant();
-                    plannedTime = internalOpenDoors(targetFloor, newElements, plannedTime);
-                    break;
-                case DOWN:
-                    final Optional<ElevatorState> mostDownwards =
-                            Arrays.stream(sortedOldElementsArray)
-                                  .filter(element -> Constants.signum(element.getSpeed()) >= 0)
-                                  .max((o1, o2) -> {
-                                      final int cmp = Integer.compare(o1.getFloor(), o2.getFloor());
-                                      if (cmp != 0) {
-                                          return -cmp; // reverse sorting by floor
-                                      }
-                                      return o1.getPlannedInstant().compareTo(o2.getPlannedInstant());
-                                  });
-                    if (!stateMapByFloor.isEmpty() && stateMapByFloor.containsKey(targetFloor)) {
-                        log.debug("parentElement = stateMapByFloor.get(targetFloor).last()");
-                        parentElement = stateMapByFloor.get(targetFloor).last();
-                    } else if (sortedOldElementsArray.length > 0) {
-                        log.debug("selecting the lowest");
-                        int direction = 0;
-                        int indexOfLowest = sortedOldElementsArray.length - 1;
-                        for (int i = 0; i < sortedOldElementsArray.length; i++) {
-                            final ElevatorState element = sortedOldElementsArray[i];
-                            final int signum = signum(element.getSpeed());
-                            if (signum != 0) {
-                                direction = signum;
-                            }
-                            if (direction == -1 &&
-                                    Integer.compare(element.getFloor(),
-                                            sortedOldElementsArray[indexOfLowest].getFloor()) < 0) {
-                                indexOfLowest = i;
-                            }
-                        }
-                        parentElement = sortedOldElementsArray[indexOfLowest];
-                    } else {
-                        log.debug("parentElement = currState");
-                        parentElement = currState;
-                    }
-                    plannedTime = startTime = Constants.max(parentElement.getPlannedInstant(), getCurrentInstant());
-                    plannedTime = internalGoDownwards(parentElement.getFloor(), targetFloor, newElements, plannedTime);
-                    plannedTime = internalOpenDoors(targetFloor, newElements, plannedTime);
-                    if (isAnyoneLater(sortedOldElementsArray, startTime)) {
-                        plannedTime = internalGoUpwards(
-                                targetFloor, parentElement.getFloor(), newElements, plannedTime);
-                    }
-                    break;
-                default:
-                    throw new IllegalStateException("Internal error: Unexpected value of Durection enum: " + wantedDirection);
-            }
-
-            final Instant finishTime = plannedTime.plusNanos(1);
-            final Duration addedDuration = Duration.between(startTime, finishTime);
-            final List<ElevatorState> oldElements = Arrays.asList(sortedOldElementsArray);
-            oldElements.forEach(oldElement -> {
-                if (oldElement.getPlannedInstant().compareTo(startTime) > 0) {
-                    final ElevatorState rescheduled = new ElevatorState(
-                            oldElement.getPlannedInstant()
-                                      .plus(addedDuration),
-                            oldElement.getFloor(),
-                            oldElement.getDoorsState(),
-                            oldElement.getSpeed()
-                    );
-                    newElements.add(rescheduled);
-                    log.debug("postpone an element to a later moment: {}", rescheduled);
-                } else {
-                    newElements.add(oldElement);
-                }
-            });
-            stateDelayQueue.clear();
-            stateDelayQueue.addAll(newElements);
-        }
-        log.trace("...Elevator.planMovement() finished");
-    }
-
-    private boolean isAnyoneLater(@Nonnull final ElevatorState[] oldElementsArray,
-                                  @Nonnull final Instant startTime) {
-        final boolean result = Arrays.stream(oldElementsArray).anyMatch(old -> old.getPlannedInstant()
-                                                                                  .compareTo(startTime) > 0);
-        log.debug("isAnyoneLater({}, {}) returns: {}", oldElementsArray.length, startTime, result);
-        return result;
-    }
-
-    private Instant internalGoUpwards(final int fromFloor,
-                                      final int toFloor,
-                                      @Nonnull final List<ElevatorState> newElements,
-                                      @Nonnull Instant plannedTime) {
-        log.debug("internalGoUpwards({}, {}, {}, {})",
-                fromFloor, toFloor, newElements.size(), plannedTime);
-        for (int i = fromFloor; i <= toFloor; i++) {
-            plannedTime = plannedTime.plusNanos(nanosPerFloor);
-            newElements.add(new ElevatorState(plannedTime, i, DoorsState.CLOSED,
-                    (i == toFloor) ? 0.0d : getSpeed()));
-        }
-        return plannedTime;
-    }
-
-    private Instant internalGoDownwards(final int fromFloor,
-                                        final int toFloor,
-                                        @Nonnull final List<ElevatorState> newElements,
-                                        @Nonnull Instant plannedTime) {
-        log.debug("internalGoDownwards({}, {}, {}, {})",
-                fromFloor, toFloor, newElements.size(), plannedTime);
-        for (int i = fromFloor - 1; i >= toFloor; i--) {
-            plannedTime = plannedTime.plusNanos(nanosPerFloor);
-            newElements.add(new ElevatorState(plannedTime, i, DoorsState.CLOSED,
-                    -getSpeed()));
-        }
-        return plannedTime;
-    }
-
-    private Instant internalOpenDoors(final int targetFloor,
-                                      @Nonnull final List<ElevatorState> newElements,
-                                      @Nonnull Instant plannedTime) {
-        log.debug("internalOpenDoors({}, {}, {})",
-                targetFloor, newElements.size(), plannedTime);
-        plannedTime = plannedTime.plusNanos(Constants.DOORS_OPENING_TIME_IN_MILLIS)
-                                 .plusNanos(1); // we need a difference by at least one nanosecond - for sorting
-        newElements.add(new ElevatorState(
-                plannedTime, targetFloor, DoorsState.OPENED,
-                0.0d));
-        plannedTime = plannedTime.plusNanos(getTimeoutInNanos())
-                                 .plusNanos(1);
-        newElements.add(new ElevatorState(
-                plannedTime, targetFloor, DoorsState.CLOSED,
-                0.0d));
-        return plannedTime;
     }
 
     public double getTimeoutInSeconds() {
@@ -362,6 +634,13 @@ public class Elevator {
         return maxFloor;
     }
 
+    /**
+     * @return the floor where the elevator waits at the start: the first floor, or the nearest one it serves
+     */
+    public int getLobbyFloor() {
+        return lobbyFloor;
+    }
+
     public double getHeight() {
         return height;
     }
@@ -374,8 +653,40 @@ public class Elevator {
         return timeoutInNanos;
     }
 
-    public DelayQueue<ElevatorState> getStateDelayQueue() {
-        return stateDelayQueue;
+    /**
+     * @return the time to travel a single floor at the full speed, in nanoseconds
+     */
+    public long getNanosPerFloor() {
+        return nanosPerFloor;
+    }
+
+    /**
+     * @param floors the length of a trip from a standstill to a standstill, up to the whole building and one more
+     * @return the time of the trip, in nanoseconds; a lookup in a table computed in advance
+     */
+    public long getTravelNanos(final int floors) {
+        return travelNanosByFloors[floors];
+    }
+
+    /**
+     * @return null if the elevator starts and stops at once
+     */
+    public Kinematics getKinematics() {
+        return kinematics;
+    }
+
+    @Nonnull
+    public PlannerType getPlannerType() {
+        return plannerType;
+    }
+
+    @Nonnull
+    public SimulationClock getClock() {
+        return clock;
+    }
+
+    public int getPlanSize() {
+        return getSnapshot().getPlanSize();
     }
 
 }
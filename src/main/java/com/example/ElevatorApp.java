@@ -6,20 +6,44 @@ import org.slf4j.LoggerFactory;
 import javax.annotation.Nonnull;
 import java.io.IOException;
 import java.lang.invoke.MethodHandles;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.LinkedBlockingQueue;
 
 public class ElevatorApp implements Callable<Integer>, AutoCloseable {
     private final static Logger log = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
 
     private static final String LAUNCH_INSTRUCTIONS = "\n" +
             " Command-line parameters:\n" +
-            "  --floors=<number of floors in the building>\n" +
+            "  --floors=<number of floors in the building; the highest floor if there are basements>\n" +
+            "  --min-floor=<the lowest floor, 1 by default; zero or negative for the basements>\n" +
             "  --height=<height of one floor in the building, in meters>\n" +
             "  --speed=<how fast the elevator moves up or down, in meters per second>\n" +
             "  --timeout=<how much time the elevator waits with open doors, in seconds>\n" +
+            "  --acceleration=<the maximum acceleration of the elevator, in m/s2; off by default>\n" +
+            "  --jerk=<the maximum jerk of the elevator, in m/s3, with --acceleration; unlimited by default>\n" +
+            "  --cars=<number of elevator cars serving the building, 1 by default>\n" +
+            "  --planner=<how the stops are planned: excursions (by default) or look>\n" +
+            "  --metrics=<period of logging the metrics, in seconds; also published over JMX; off by default>\n" +
+            "  --journal=<directory to journal every state transition into, in a binary form; off by default>\n" +
+            "  --trace=<number of the latest events of every car kept in memory, shown by TRACE; off by default>\n" +
+            "  --snapshot=<file to keep the current states and plans of the cars in, restored from it at start>\n" +
+            "  --snapshot-period=<period of writing the snapshot, in seconds, 1 by default>\n" +
+            "  --batch=<call trace file to replay without user interaction>\n" +
+            "     (every line of the file: <seconds> <floor> <UP|DOWN> <destination floor>)\n" +
+            "  --traffic=<load test with synthetic passengers: background, up-peak, lunch or down-peak>\n" +
+            "  --rate=<passengers per minute for the load test, or several rates separated by commas>\n" +
+            "  --duration=<how long the passengers keep coming in the load test, in seconds, 3600 by default>\n" +
+            "  --seed=<seed of the random passengers of the load test, 1 by default>\n" +
+            "  --max-wait=<acceptable 99th percentile of the wait in the load test, in seconds, 60 by default>\n" +
             "\n" +
             " Command-line example:\n" +
             "  java -jar elevator.jar --floors=15 --height=2 --speed=2.5 --timeout=4.5\n" +
@@ -28,35 +52,109 @@ public class ElevatorApp implements Callable<Integer>, AutoCloseable {
             "  - go to menu Run -> Edit Configurations -> check Single instance only\n" +
             "\n";
 
+    private static final int JOURNAL_BUFFER_CAPACITY = 4096; // transitions per car
+
     private static final String RUNTIME_INSTRUCTIONS = "\n" +
             " Welcome to the Elevator simulation!\n" +
             "\n" +
             "  - If you are not in the elevator yet, press [ENTER] to call the elevator.\n" +
             "\n" +
             "  - When you are inside the elevator,\n" +
-            "    type in the floor number (1 to the maximum floor) where you would like to go\n" +
+            "    type in the floor number (from the lowest to the highest floor) where you would like to go\n" +
             "    and press [ENTER].\n" +
             "\n" +
+            "  - If the tracing is on, type TRACE to see the latest events of the elevators.\n" +
+            "\n" +
             " Whenever you feel like quitting:\n" +
             "  - type QUIT, or Q, or EXIT, or E to exit the application gracefully\n" +
             "  - or stop the application by pressing CTRL+C\n" +
             "\n";
 
-    private final UserInput userInput;
+    private final UserInput userInput; // null in the batch mode
     private final UserOutput userOutput;
-    private final Elevator elevator;
+    private final ElevatorSettings settings;
+    private String batchFile; // set from the command line; null in the interactive mode
+    private TrafficPattern traffic; // set from the command line; null unless load testing
+    private double[] callsPerMinute = {60.0d}; // set from the command line
+    private double durationInSeconds = 3600.0d; // set from the command line
+    private long seed = 1L; // set from the command line
+    private double maxWaitInSeconds = 60.0d; // set from the command line
+    private double metricsPeriodInSeconds; // set from the command line; 0 if the metrics are off
+    private final ElevatorMetrics metrics; // null if off
+    private final MetricsReporter metricsReporter; // null if off
+    private String journalDirectory; // set from the command line; null if the journal is off
+    private final StateJournal journal; // null if off
+    private final List<AsyncStateListener> journalListeners = new ArrayList<>();
+    private int traceCapacity; // set from the command line; 0 if the tracing is off
+    private String snapshotFile; // set from the command line; null if the snapshots are off
+    private double snapshotPeriodInSeconds = 1.0d; // set from the command line
+    private final PlanSnapshotWriter snapshotWriter; // null if off
+    private final ElevatorBank bank; // null unless interactive
+    private final BlockingQueue<AppEvent> events = new LinkedBlockingQueue<>();
     private final ConcurrentLinkedDeque<PassengerState> passengerState;
+    private long calledEpochNanos; // for the metrics
+    private long enteredEpochNanos; // for the metrics
 
     public ElevatorApp(final String[] args) throws IOException {
-        userInput = new UserInput(System.in);
-        userOutput = new UserOutput(System.out);
-        userOutput.writeString(RUNTIME_INSTRUCTIONS);
-        elevator = createElevatorFromArgs(args);
-        elevator.addListener(this::stateChanged);
+        userOutput = new UserOutput(System.out, true); // the console is written to by a thread of its own
+        settings = createSettingsFromArgs(args);
+        settings.validate(); // the bank is only created in the interactive mode
+        if (metricsPeriodInSeconds > 0.0d) {
+            metrics = new ElevatorMetrics();
+            metrics.register(isInteractive() ? "interactive" : "batch");
+            metricsReporter = new MetricsReporter(metrics, metricsPeriodInSeconds);
+        } else {
+            metrics = null;
+            metricsReporter = null;
+        }
+        journal = journalDirectory != null ? new StateJournal(Paths.get(journalDirectory)) : null;
+        if (isInteractive()) {
+            // the batch and the load test run banks of their own in the simulated time
+            bank = settings.createBank(WallClock.INSTANCE);
+            if (metrics != null) {
+                bank.setMetrics(metrics);
+            }
+            if (journal != null) {
+                // written on a thread of its own, so starting a new segment never holds up the car
+                bank.getCars().forEach(car -> {
+                    final AsyncStateListener listener = new AsyncStateListener(journal.listenerFor(bank.numberOf(car)),
+                            JOURNAL_BUFFER_CAPACITY, ListenerOverflowPolicy.BLOCK);
+                    journalListeners.add(listener);
+                    car.addListener(listener);
+                });
+            }
+            if (traceCapacity > 0) {
+                bank.getCars().forEach(car -> car.setTrace(new ElevatorTrace(traceCapacity)));
+            }
+            if (snapshotFile != null) {
+                final Path file = Paths.get(snapshotFile);
+                if (Files.exists(file)) {
+                    final long startedNanos = System.nanoTime();
+                    bank.restore(PlanSnapshot.read(file));
+                    log.info("The elevators are restored from {} in {} ms", file,
+                            (System.nanoTime() - startedNanos) / 1_000_000L);
+                }
+                snapshotWriter = new PlanSnapshotWriter(bank, file, snapshotPeriodInSeconds);
+            } else {
+                snapshotWriter = null;
+            }
+            userOutput.writeString(RUNTIME_INSTRUCTIONS);
+            // the transitions are only queued here, the console output is off the elevator's critical path
+            bank.getCars().forEach(car -> car.addListener(
+                    (previousState, newState) -> events.add(AppEvent.stateChanged(car, previousState, newState))));
+            bank.startDispatchers();
+            userInput = new UserInput(System.in,
+                    line -> events.add(AppEvent.userCommand(line)),
+                    () -> events.add(AppEvent.endOfInput()));
+        } else {
+            bank = null;
+            snapshotWriter = null;
+            userInput = null;
+        }
         passengerState = new ConcurrentLinkedDeque<>();
         passengerState.addFirst(new PassengerState(
                 null,
-                1,
+                Elevator.lobbyFloorOf(settings.getMinFloor(), settings.getFloors()),
                 null,
                 PassengerStatus.OUTSIDE_ELEVATOR_NOT_WAITING
         ));
@@ -64,15 +162,38 @@ public class ElevatorApp implements Callable<Integer>, AutoCloseable {
 
     @Override
     public void close() throws Exception {
-        userInput.close();
+        if (snapshotWriter != null) {
+            snapshotWriter.close(); // while the cars are still there
+        }
+        if (bank != null) {
+            bank.close();
+        }
+        if (userInput != null) {
+            userInput.close();
+        }
+        journalListeners.forEach(AsyncStateListener::close); // what is queued is journaled still
+        if (journal != null) {
+            journal.close();
+        }
+        if (metricsReporter != null) {
+            metricsReporter.close();
+        }
+        if (metrics != null) {
+            metrics.close();
+        }
         userOutput.close();
     }
 
-    private Elevator createElevatorFromArgs(final String[] args) throws IOException {
+    private ElevatorSettings createSettingsFromArgs(final String[] args) throws IOException {
+        int cars = 1;
+        PlannerType planner = PlannerType.EXCURSIONS;
+        int minFloor = 1;
         int floors = 0;
         double height = 0;
         double speed = 0;
         double timeout = 0;
+        double acceleration = 0; // 0 if the kinematics are off
+        double jerk = Double.POSITIVE_INFINITY;
         for (int i = 0; i < args.length; i++) {
             String arg = args[i];
             final String paramName;
@@ -116,6 +237,10 @@ public class ElevatorApp implements Callable<Integer>, AutoCloseable {
                     floors = Integer.parseUnsignedInt(paramValue);
                     log.info("floors = " + floors);
                     break;
+                case "min-floor":
+                    minFloor = Integer.parseInt(paramValue);
+                    log.info("min-floor = " + minFloor);
+                    break;
                 case "height":
                 case "h":
                     height = Double.parseDouble(paramValue);
@@ -133,79 +258,123 @@ public class ElevatorApp implements Callable<Integer>, AutoCloseable {
                     timeout = Double.parseDouble(paramValue);
                     log.info("timeout = " + timeout);
                     break;
+                case "acceleration":
+                    acceleration = Double.parseDouble(paramValue);
+                    log.info("acceleration = " + acceleration);
+                    break;
+                case "jerk":
+                    jerk = Double.parseDouble(paramValue);
+                    log.info("jerk = " + jerk);
+                    break;
+                case "cars":
+                case "c":
+                    cars = Integer.parseUnsignedInt(paramValue);
+                    log.info("cars = " + cars);
+                    break;
+                case "planner":
+                case "p":
+                    planner = PlannerType.of(paramValue);
+                    log.info("planner = " + planner);
+                    break;
+                case "metrics":
+                case "m":
+                    metricsPeriodInSeconds = Double.parseDouble(paramValue);
+                    log.info("metrics = " + metricsPeriodInSeconds);
+                    break;
+                case "journal":
+                case "j":
+                    journalDirectory = paramValue;
+                    log.info("journal = " + journalDirectory);
+                    break;
+                case "trace":
+                    traceCapacity = Integer.parseUnsignedInt(paramValue);
+                    log.info("trace = " + traceCapacity);
+                    break;
+                case "snapshot":
+                    snapshotFile = paramValue;
+                    log.info("snapshot = " + snapshotFile);
+                    break;
+                case "snapshot-period":
+                    snapshotPeriodInSeconds = Double.parseDouble(paramValue);
+                    log.info("snapshot-period = " + snapshotPeriodInSeconds);
+                    break;
+                case "batch":
+                case "b":
+                    batchFile = paramValue;
+                    log.info("batch = " + batchFile);
+                    break;
+                case "traffic":
+                    traffic = TrafficPattern.of(paramValue);
+                    log.info("traffic = " + traffic);
+                    break;
+                case "rate":
+                case "r":
+                    final String[] rates = paramValue.split(",");
+                    callsPerMinute = new double[rates.length];
+                    for (int r = 0; r < rates.length; r++) {
+                        callsPerMinute[r] = Double.parseDouble(rates[r].trim());
+                    }
+                    log.info("rate = " + paramValue);
+                    break;
+                case "duration":
+                    durationInSeconds = Double.parseDouble(paramValue);
+                    log.info("duration = " + durationInSeconds);
+                    break;
+                case "seed":
+                    seed = Long.parseLong(paramValue);
+                    log.info("seed = " + seed);
+                    break;
+                case "max-wait":
+                    maxWaitInSeconds = Double.parseDouble(paramValue);
+                    log.info("max-wait = " + maxWaitInSeconds);
+                    break;
                 default:
                     // Ignore any unknown command-line parameters
                     break;
             }
         }
-        return new Elevator(floors, height, speed, timeout);
+        return new ElevatorSettings(minFloor, floors, height, speed, timeout, cars, planner,
+                acceleration == 0 ? null : new Kinematics(acceleration, jerk));
     }
 
     @Override
-    public Integer call() {
+    public Integer call() throws IOException {
+        if (traffic != null) {
+            return callLoadTest();
+        }
+        if (batchFile != null) {
+            return callBatch();
+        }
         int result;
         try {
             String userCommand = null;
             do {
                 try {
-                    Thread.sleep(10);
-                    userCommand = userInput.nextLine();
-                    if (userCommand != null) {
-                        userCommand = userCommand.toLowerCase();
-                        final ElevatorState elevatorState = elevator.pollCurrentState();
-                        final PassengerState passenger = getPassengerState();
-                        final Optional<Integer> passengerFloor = passenger.getStandingFloor();
-                        switch (passenger.getStatus()) {
-                            case OUTSIDE_ELEVATOR_WAITING:
-                                break;
-                            case OUTSIDE_ELEVATOR_NOT_WAITING:
-                                if (!passengerFloor.isPresent()) { // Sanity check
-                                    throw new IllegalStateException(
-                                            "Internal error: We've lost sight of the passenger (" +
-                                                    this.passengerState + ")");
-                                }
-                                if (Objects.equals(elevatorState.getFloor(), passengerFloor.get())
-                                        && elevatorState.getDoorsState() == DoorsState.OPENED) {
-                                    // Going into the elevator urgently
-                                    userOutput.writeString("The passenger urgently enters the elevator");
-                                    changePassengerState(passenger.goIntoElevator(elevator));
-                                } else {
-                                    userOutput.writeString("The passenger called an elevator" +
-                                            " from the floor # " + passengerFloor.get());
-                                    elevator.callTo(passengerFloor.get());
-                                    changePassengerState(passenger
-                                            .changeStatus(PassengerStatus.OUTSIDE_ELEVATOR_WAITING));
-                                }
-                                break;
-                            case INSIDE_ELEVATOR:
-                                final int floor;
-                                try {
-                                    floor = Integer.parseInt(userCommand);
-                                } catch (final NumberFormatException e) {
-                                    throw new ElevatorException("Hint: You are inside the elevator." +
-                                            " Enter the number of floor where you want to go." +
-                                            " (can't understand your command: " + userCommand + ")");
-                                }
-                                if (Objects.equals(elevatorState.getFloor(), floor)
-                                        && elevatorState.getDoorsState() == DoorsState.OPENED) {
-                                    // Going out of the elevator urgently
-                                    userOutput.writeString("The passenger urgently goes out of the elevator");
-                                    changePassengerState(passenger.goOutToFloor(floor));
-                                } else {
-                                    elevator.rideTo(floor);
-                                    userOutput.writeString("The passenger has chosen to go to floor # " + floor);
-                                    changePassengerState(passenger.memorizeTargetFloor(floor));
-                                }
-                                break;
-                            default:
-                                throw new IllegalStateException(
-                                        "Internal error: Unknown passenger status:" + passenger.getStatus());
-                        }
+                    final AppEvent event = events.take();
+                    switch (event.getKind()) {
+                        case USER_COMMAND:
+                            userCommand = event.getUserCommand().toLowerCase();
+                            if ("trace".equals(userCommand)) {
+                                userOutput.writeString(describeTraces());
+                            } else {
+                                handleUserCommand(userCommand);
+                            }
+                            break;
+                        case END_OF_INPUT:
+                            userCommand = "exit";
+                            break;
+                        case STATE_CHANGED:
+                            userCommand = null;
+                            stateChanged(event.getCar(), event.getPreviousState(), event.getNewState());
+                            break;
+                        default:
+                            throw new IllegalStateException("Internal error: Unknown event: " + event);
                     }
-                    elevator.pollCurrentState();
                     // log.debug("userCommand: {}, passenger: {}", userCommand, passengerState);
+                    // a plan is published after its transitions are queued, so nothing is pending if both are empty
                     if (getPassengerState().getStatus() == PassengerStatus.OUTSIDE_ELEVATOR_WAITING
-                            && elevator.getStateDelayQueue().size() == 0) {
+                            && bank.getPlanSize() == 0
+                            && events.isEmpty()) {
                         throw new IllegalStateException("Internal error: The elevator is stuck");
                     }
                 } catch (final ElevatorException e) {
@@ -218,22 +387,150 @@ public class ElevatorApp implements Callable<Integer>, AutoCloseable {
             result = 0;
         } catch (final InterruptedException e) {
             result = 0;
+        } catch (final RuntimeException e) {
+            if (traceCapacity > 0) {
+                log.error("The latest events before the failure:\n{}", describeTraces());
+            }
+            throw e;
         }
         return result;
     }
 
-    private void stateChanged(final ElevatorState previousState,
+    /**
+     * @return the traces of all the cars, as text
+     */
+    @Nonnull
+    private String describeTraces() {
+        if (traceCapacity == 0) {
+            throw new ElevatorException("The tracing is off, please start the application with --trace=<events>.");
+        }
+        final StringBuilder result = new StringBuilder();
+        for (final Elevator car : bank.getCars()) {
+            result.append(describe(car)).append(":\n")
+                  .append(car.getTrace().dump());
+        }
+        return result.toString();
+    }
+
+    private void handleUserCommand(@Nonnull final String userCommand) {
+        final PassengerState passenger = getPassengerState();
+        final Optional<Integer> passengerFloor = passenger.getStandingFloor();
+        switch (passenger.getStatus()) {
+            case OUTSIDE_ELEVATOR_WAITING:
+                break;
+            case OUTSIDE_ELEVATOR_NOT_WAITING:
+                if (!passengerFloor.isPresent()) { // Sanity check
+                    throw new IllegalStateException(
+                            "Internal error: We've lost sight of the passenger (" +
+                                    this.passengerState + ")");
+                }
+                final Optional<Elevator> openedCar = bank.getCars().stream()
+                        .filter(car -> isOpenedAt(car, passengerFloor.get()))
+                        .findFirst();
+                if (openedCar.isPresent()) {
+                    // Going into the elevator urgently
+                    userOutput.writeString("The passenger urgently enters " +
+                            describe(openedCar.get()).toLowerCase());
+                    changePassengerState(passenger.goIntoElevator(openedCar.get()));
+                } else {
+                    userOutput.writeString("The passenger called an elevator" +
+                            " from the floor # " + passengerFloor.get());
+                    final Elevator assigned = bank.callTo(passengerFloor.get()).join();
+                    if (bank.getCars().size() > 1) {
+                        userOutput.writeString(describe(assigned) + " is assigned to the call");
+                    }
+                    changePassengerState(passenger
+                            .changeStatus(PassengerStatus.OUTSIDE_ELEVATOR_WAITING));
+                }
+                break;
+            case INSIDE_ELEVATOR:
+                final Elevator car = passenger.getElevator().orElseThrow(
+                        () -> new IllegalStateException("Internal error: The passenger is not in a car"));
+                final int floor;
+                try {
+                    floor = Integer.parseInt(userCommand);
+                } catch (final NumberFormatException e) {
+                    throw new ElevatorException("Hint: You are inside the elevator." +
+                            " Enter the number of floor where you want to go." +
+                            " (can't understand your command: " + userCommand + ")");
+                }
+                if (isOpenedAt(car, floor)) {
+                    // Going out of the elevator urgently
+                    userOutput.writeString("The passenger urgently goes out of the elevator");
+                    changePassengerState(passenger.goOutToFloor(floor));
+                } else {
+                    bank.rideTo(car, floor).join();
+                    userOutput.writeString("The passenger has chosen to go to floor # " + floor);
+                    changePassengerState(passenger.memorizeTargetFloor(floor));
+                }
+                break;
+            default:
+                throw new IllegalStateException(
+                        "Internal error: Unknown passenger status:" + passenger.getStatus());
+        }
+    }
+
+    /**
+     * Replays the call trace on a virtual clock and prints the summary statistics.
+     */
+    private Integer callBatch() throws IOException {
+        final BatchSimulation simulation = new BatchSimulation(settings,
+                BatchSimulation.readTrace(Paths.get(batchFile)), metrics, journal);
+        try {
+            System.out.println(simulation.run());
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return 0;
+    }
+
+    /**
+     * Runs the synthetic traffic at every given rate on a virtual clock and prints how the elevators cope.
+     */
+    private Integer callLoadTest() {
+        final LoadTest loadTest = new LoadTest(settings, traffic, callsPerMinute, durationInSeconds, seed,
+                maxWaitInSeconds);
+        try {
+            System.out.println(loadTest.run());
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return 0;
+    }
+
+    private boolean isInteractive() {
+        return batchFile == null && traffic == null;
+    }
+
+    private boolean isOpenedAt(@Nonnull final Elevator car,
+                               final int floor) {
+        final ElevatorState elevatorState = car.getCurrentState();
+        return Objects.equals(elevatorState.getFloor(), floor)
+                && elevatorState.getDoorsState() == DoorsState.OPENED;
+    }
+
+    /**
+     * @return "The elevator", or "The elevator # n" if there are several of them
+     */
+    private String describe(@Nonnull final Elevator car) {
+        return bank.getCars().size() > 1
+               ? "The elevator # " + bank.numberOf(car)
+               : "The elevator";
+    }
+
+    private void stateChanged(@Nonnull final Elevator car,
+                              final ElevatorState previousState,
                               final ElevatorState newState) {
         switch (Constants.compareDoubles(newState.getSpeed(), 0.0f)) {
             case 0:
-                userOutput.writeString("The elevator is at the floor # " + newState.getFloor() +
+                userOutput.writeString(describe(car) + " is at the floor # " + newState.getFloor() +
                         ", " + newState.getDoorsState().getDescription());
                 break;
             case -1:
-                userOutput.writeString("The elevator is going down, now passing the floor # " + newState.getFloor());
+                userOutput.writeString(describe(car) + " is going down, now passing the floor # " + newState.getFloor());
                 break;
             case 1:
-                userOutput.writeString("The elevator is going up, now passing the floor # " + newState.getFloor());
+                userOutput.writeString(describe(car) + " is going up, now passing the floor # " + newState.getFloor());
                 break;
         }
 
@@ -244,13 +541,13 @@ public class ElevatorApp implements Callable<Integer>, AutoCloseable {
                     && passengerStandingFloor.get().equals(newState.getFloor())
                     && passenger.getStatus() == PassengerStatus.OUTSIDE_ELEVATOR_WAITING) {
                 // Going into the elevator as planned
-                userOutput.writeString("The passenger enters the elevator");
-                changePassengerState(passenger.goIntoElevator(elevator));
+                userOutput.writeString("The passenger enters " + describe(car).toLowerCase());
+                changePassengerState(passenger.goIntoElevator(car));
             } else {
                 Optional<Elevator> passengerElevator = passenger.getElevator();
                 Optional<Integer> passengerTargetFloor = passenger.getTargetFloor();
                 if (passengerElevator.isPresent()
-                        && passengerElevator.get().equals(elevator)
+                        && passengerElevator.get().equals(car)
                         && passengerTargetFloor.isPresent()
                         && passengerTargetFloor.get().equals(newState.getFloor())) {
                     // Going out of the elevator as planned
@@ -267,10 +564,30 @@ public class ElevatorApp implements Callable<Integer>, AutoCloseable {
     }
 
     private void changePassengerState(@Nonnull final PassengerState newPassengerState) {
+        if (metrics != null) {
+            measurePassenger(getPassengerState().getStatus(), newPassengerState.getStatus());
+        }
         passengerState.addFirst(newPassengerState);
         passengerState.removeLast();
     }
 
+    private void measurePassenger(@Nonnull final PassengerStatus previousStatus,
+                                  @Nonnull final PassengerStatus newStatus) {
+        final long now = WallClock.INSTANCE.epochNanos();
+        if (newStatus == PassengerStatus.OUTSIDE_ELEVATOR_WAITING) {
+            calledEpochNanos = now;
+        } else if (newStatus == PassengerStatus.INSIDE_ELEVATOR
+                && previousStatus != PassengerStatus.INSIDE_ELEVATOR) {
+            if (previousStatus == PassengerStatus.OUTSIDE_ELEVATOR_WAITING) {
+                metrics.recordHallCallWait(now - calledEpochNanos);
+            }
+            enteredEpochNanos = now;
+        } else if (newStatus == PassengerStatus.OUTSIDE_ELEVATOR_NOT_WAITING
+                && previousStatus == PassengerStatus.INSIDE_ELEVATOR) {
+            metrics.recordRide(now - enteredEpochNanos);
+        }
+    }
+
     /* ---------------------------------------------------------------
      * MAIN
      */
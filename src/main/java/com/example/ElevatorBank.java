@@ -0,0 +1,271 @@
+package com.example;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nonnull;
+import java.lang.invoke.MethodHandles;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A group of elevators serving the same floors.
+ * <p>
+ * Every car has its own planner thread, so the cars are planned in parallel,
+ * while the calls to the same car are still planned one by one, in the order they were made.
+ * A hall call asks every car for its estimated arrival at the floor and goes to the earliest one.
+ * <p>
+ * A bank driven by a single thread anyway, e.g. a {@link BatchSimulation}, may plan on the calling thread instead,
+ * so that many banks can run side by side without a thread per car.
+ */
+public class ElevatorBank implements AutoCloseable {
+    private final static Logger log = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+
+    private static final long SHUTDOWN_TIMEOUT_IN_SECONDS = 5;
+
+    private final List<Elevator> cars;
+    private final List<Executor> planners;
+
+    public ElevatorBank(@Nonnull final List<Elevator> cars) {
+        this(cars, false);
+    }
+
+    /**
+     * @param planOnCallerThread plan every call on the thread which makes it, so the returned futures are
+     *                           already completed; otherwise every car gets its own planner thread
+     */
+    public ElevatorBank(@Nonnull final List<Elevator> cars,
+                        final boolean planOnCallerThread) {
+        if (cars.isEmpty()) {
+            throw new ElevatorException("Please provide at least one elevator car.");
+        }
+        final Elevator first = cars.get(0);
+        for (final Elevator car : cars) {
+            if (car.getMinFloor() != first.getMinFloor() || car.getMaxFloor() != first.getMaxFloor()) {
+                throw new ElevatorException("All the elevator cars should serve the same floors.");
+            }
+        }
+        this.cars = Collections.unmodifiableList(new ArrayList<>(cars));
+        final List<Executor> planners = new ArrayList<>(cars.size());
+        for (int i = 0; i < cars.size(); i++) {
+            if (planOnCallerThread) {
+                planners.add(Runnable::run);
+                continue;
+            }
+            final String threadName = "car-" + (i + 1) + "-planner";
+            planners.add(Executors.newSingleThreadExecutor(runnable -> {
+                final Thread thread = new Thread(runnable, threadName);
+                thread.setDaemon(true);
+                return thread;
+            }));
+        }
+        this.planners = Collections.unmodifiableList(planners);
+        log.debug("Created: {}", this);
+    }
+
+    @Override
+    public String toString() {
+        return "ElevatorBank{" +
+                "cars=" + cars +
+                '}';
+    }
+
+    @Override
+    public void close() {
+        cars.forEach(Elevator::stopDispatcher);
+        for (final Executor planner : planners) {
+            if (planner instanceof ExecutorService) {
+                ((ExecutorService) planner).shutdown();
+            }
+        }
+        try {
+            for (final Executor planner : planners) {
+                if (planner instanceof ExecutorService
+                        && !((ExecutorService) planner).awaitTermination(SHUTDOWN_TIMEOUT_IN_SECONDS, TimeUnit.SECONDS)) {
+                    log.warn("A planner thread has not finished in time, some calls may be lost.");
+                }
+            }
+        } catch (final InterruptedException e) {
+            log.warn("Interrupted while waiting for the planner threads, some calls may be lost.");
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Assigns a hall call to the car which is expected to be at the floor first
+     * (the car with the lowest number, if several of them are equally good).
+     * The estimates are computed by the planner threads of the cars in parallel.
+     * A repeated call to a floor which is already assigned to a car goes to that car at once.
+     *
+     * @return the car which is going to serve the call, completed once the call is planned
+     */
+    @Nonnull
+    public CompletableFuture<Elevator> callTo(final int targetFloor) {
+        log.debug("ElevatorBank.callTo({})", targetFloor);
+        cars.get(0).checkTargetFloor(targetFloor);
+        for (int i = 0; i < cars.size(); i++) {
+            if (cars.get(i).hasPendingHallCall(targetFloor)) {
+                log.debug("the call to the floor # {} is already assigned to the car # {}", targetFloor, i + 1);
+                return CompletableFuture.completedFuture(cars.get(i));
+            }
+        }
+        final List<CompletableFuture<Long>> estimates = new ArrayList<>(cars.size());
+        for (int i = 0; i < cars.size(); i++) {
+            final Elevator car = cars.get(i);
+            estimates.add(CompletableFuture.supplyAsync(
+                    () -> car.estimateArrivalEpochNanos(targetFloor), planners.get(i)));
+        }
+        return CompletableFuture.allOf(estimates.toArray(new CompletableFuture<?>[0]))
+                                .thenCompose(ignored -> {
+                                    int best = 0;
+                                    for (int i = 1; i < estimates.size(); i++) {
+                                        if (estimates.get(i).join() < estimates.get(best).join()) {
+                                            best = i;
+                                        }
+                                    }
+                                    log.debug("car # {} is assigned to the call to the floor # {}",
+                                            best + 1, targetFloor);
+                                    final Elevator car = cars.get(best);
+                                    return CompletableFuture.supplyAsync(() -> {
+                                        car.callTo(targetFloor);
+                                        return car;
+                                    }, planners.get(best));
+                                });
+    }
+
+    /**
+     * Plans a ride of a passenger inside the given car.
+     *
+     * @return completed once the ride is planned
+     */
+    @Nonnull
+    public CompletableFuture<Void> rideTo(@Nonnull final Elevator car,
+                                          final int targetFloor) {
+        car.checkTargetFloor(targetFloor);
+        return CompletableFuture.runAsync(() -> car.rideTo(targetFloor), plannerOf(car));
+    }
+
+    /**
+     * Plans the rides of several passengers who have entered the given car together, in a single pass.
+     *
+     * @return completed once the rides are planned
+     * @see Elevator#planAll
+     */
+    @Nonnull
+    public CompletableFuture<Void> rideAll(@Nonnull final Elevator car,
+                                           @Nonnull final Collection<Integer> targetFloors) {
+        final List<ElevatorRequest> requests = new ArrayList<>(targetFloors.size());
+        for (final int targetFloor : targetFloors) {
+            car.checkTargetFloor(targetFloor);
+            requests.add(ElevatorRequest.carCall(targetFloor));
+        }
+        return CompletableFuture.runAsync(() -> car.planAll(requests), plannerOf(car));
+    }
+
+    /**
+     * Starts (or, with null, stops) measuring all the cars together.
+     */
+    public void setMetrics(final ElevatorMetrics metrics) {
+        cars.forEach(car -> car.setMetrics(metrics));
+    }
+
+    public void addListener(@Nonnull final ElevatorStateListener listener) {
+        cars.forEach(car -> car.addListener(listener));
+    }
+
+    /**
+     * Lets every car apply its planned states on its own, at the planned moments.
+     *
+     * @see Elevator#startDispatcher()
+     */
+    public void startDispatchers() {
+        cars.forEach(Elevator::startDispatcher);
+    }
+
+    /**
+     * Applies the planned states which are due now, in every car.
+     */
+    public void pollCurrentStates() {
+        cars.forEach(Elevator::pollCurrentState);
+    }
+
+    /**
+     * @return the moment of the earliest planned state of all the cars, or {@link Long#MAX_VALUE}
+     */
+    public long nextPlannedEpochNanos() {
+        return cars.stream()
+                   .mapToLong(Elevator::nextPlannedEpochNanos)
+                   .min()
+                   .orElse(Long.MAX_VALUE);
+    }
+
+    /**
+     * @return the number of planned states of all the cars which are not reached yet
+     */
+    public int getPlanSize() {
+        return cars.stream()
+                   .mapToInt(Elevator::getPlanSize)
+                   .sum();
+    }
+
+    /**
+     * @return the current states and plans of all the cars, in the order of their numbers
+     * @see Elevator#takeSnapshot()
+     */
+    @Nonnull
+    public List<PlanSnapshot> takeSnapshots() {
+        final List<PlanSnapshot> result = new ArrayList<>(cars.size());
+        cars.forEach(car -> result.add(car.takeSnapshot()));
+        return result;
+    }
+
+    /**
+     * Puts every car back to where its snapshot has left it.
+     *
+     * @see Elevator#restore(PlanSnapshot)
+     */
+    public void restore(@Nonnull final List<PlanSnapshot> snapshots) {
+        if (snapshots.size() != cars.size()) {
+            throw new ElevatorException("The snapshot has " + snapshots.size() + " cars, but there are "
+                    + cars.size() + " of them now.");
+        }
+        for (int i = 0; i < cars.size(); i++) {
+            cars.get(i).checkSnapshot(snapshots.get(i));
+        }
+        for (int i = 0; i < cars.size(); i++) {
+            cars.get(i).restore(snapshots.get(i));
+        }
+    }
+
+    /**
+     * @return the number of the car, starting from 1
+     */
+    public int numberOf(@Nonnull final Elevator car) {
+        final int index = cars.indexOf(car);
+        if (index < 0) {
+            throw new IllegalStateException("Internal error: The elevator does not belong to the bank: " + car);
+        }
+        return index + 1;
+    }
+
+    @Nonnull
+    private Executor plannerOf(@Nonnull final Elevator car) {
+        return planners.get(numberOf(car) - 1);
+    }
+
+    /* --------
+     * Getters
+     */
+
+    @Nonnull
+    public List<Elevator> getCars() {
+        return cars;
+    }
+}
@@ -0,0 +1,151 @@
+package com.example;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nonnull;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.invoke.MethodHandles;
+import java.lang.management.ManagementFactory;
+
+/**
+ * Histograms of how the elevators behave under load, shared by all the cars of a bank.
+ * <p>
+ * Nothing is measured unless an instance is given to {@link Elevator#setMetrics} (or {@link ElevatorBank#setMetrics}):
+ * without it, the elevator only checks a null reference.
+ * The histograms can be published over JMX with {@link #register} and logged periodically by a {@link MetricsReporter}.
+ */
+public class ElevatorMetrics implements ElevatorMetricsMXBean, AutoCloseable {
+    private final static Logger log = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+
+    private static final double NANOS_PER_MILLI = 1_000_000.0d;
+
+    private final Histogram planningNanos = new Histogram();
+    private final Histogram planSize = new Histogram();
+    private final Histogram listenerDispatchNanos = new Histogram();
+    private final Histogram hallCallWaitNanos = new Histogram();
+    private final Histogram rideNanos = new Histogram();
+    private ObjectName objectName; // while registered
+
+    @Override
+    public String toString() {
+        return "ElevatorMetrics{" +
+                "\n  planning:          " + getPlanningNanos().format(NANOS_PER_MILLI, " ms") +
+                "\n  plan size:         " + getPlanSize().format(1.0d, "") +
+                "\n  listener dispatch: " + getListenerDispatchNanos().format(NANOS_PER_MILLI, " ms") +
+                "\n  hall call wait:    " + getHallCallWaitNanos().format(Constants.NANOS_PER_SECOND, " s") +
+                "\n  ride:              " + getRideNanos().format(Constants.NANOS_PER_SECOND, " s") +
+                "\n}";
+    }
+
+    /**
+     * Publishes the metrics in the platform MBean server as {@code com.example:type=ElevatorMetrics,name=<name>}.
+     */
+    synchronized
+    public void register(@Nonnull final String name) {
+        if (objectName != null) {
+            throw new ElevatorException("The metrics are already registered as " + objectName + ".");
+        }
+        try {
+            final ObjectName newName = new ObjectName("com.example:type=ElevatorMetrics,name=" + ObjectName.quote(name));
+            ManagementFactory.getPlatformMBeanServer().registerMBean(this, newName);
+            objectName = newName;
+            log.debug("Registered: {}", objectName);
+        } catch (final JMException e) {
+            throw new ElevatorException("Sorry, the metrics can not be published over JMX: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Removes the metrics from the MBean server, if they are registered.
+     */
+    @Override
+    synchronized
+    public void close() {
+        if (objectName == null) {
+            return;
+        }
+        final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            server.unregisterMBean(objectName);
+        } catch (final JMException e) {
+            log.warn("The metrics could not be removed from JMX: " + e.getMessage());
+        }
+        objectName = null;
+    }
+
+    void recordPlanning(final long nanos) {
+        planningNanos.record(nanos);
+    }
+
+    void recordPlanSize(final int size) {
+        planSize.record(size);
+    }
+
+    void recordListenerDispatch(final long nanos) {
+        listenerDispatchNanos.record(nanos);
+    }
+
+    /**
+     * From a hall call to entering the car.
+     */
+    public void recordHallCallWait(final long nanos) {
+        hallCallWaitNanos.record(nanos);
+    }
+
+    /**
+     * From entering the car to going out of it.
+     */
+    public void recordRide(final long nanos) {
+        rideNanos.record(nanos);
+    }
+
+    @Override
+    public void reset() {
+        planningNanos.reset();
+        planSize.reset();
+        listenerDispatchNanos.reset();
+        hallCallWaitNanos.reset();
+        rideNanos.reset();
+    }
+
+    /* --------
+     * Getters
+     */
+
+    /**
+     * @return how long planning a call (or a batch of them) takes, in nanoseconds
+     */
+    @Override
+    public HistogramSnapshot getPlanningNanos() {
+        return planningNanos.snapshot();
+    }
+
+    /**
+     * @return how many states are queued, sampled whenever the plan changes
+     */
+    @Override
+    public HistogramSnapshot getPlanSize() {
+        return planSize.snapshot();
+    }
+
+    /**
+     * @return how long notifying all the listeners of a single transition takes, in nanoseconds
+     */
+    @Override
+    public HistogramSnapshot getListenerDispatchNanos() {
+        return listenerDispatchNanos.snapshot();
+    }
+
+    @Override
+    public HistogramSnapshot getHallCallWaitNanos() {
+        return hallCallWaitNanos.snapshot();
+    }
+
+    @Override
+    public HistogramSnapshot getRideNanos() {
+        return rideNanos.snapshot();
+    }
+}
@@ -0,0 +1,19 @@
+package com.example;
+
+/**
+ * The {@link ElevatorMetrics} as seen over JMX (e.g. from JConsole or VisualVM).
+ */
+public interface ElevatorMetricsMXBean {
+
+    HistogramSnapshot getPlanningNanos();
+
+    HistogramSnapshot getPlanSize();
+
+    HistogramSnapshot getListenerDispatchNanos();
+
+    HistogramSnapshot getHallCallWaitNanos();
+
+    HistogramSnapshot getRideNanos();
+
+    void reset();
+}
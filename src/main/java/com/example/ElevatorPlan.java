@@ -0,0 +1,570 @@
+package com.example;
+
+import com.example.PlanTimeline.Node;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nonnull;
+import java.lang.invoke.MethodHandles;
+import java.util.*;
+
+/**
+ * The queued movement plan of an {@link Elevator}.
+ * <p>
+ * The plan is kept as {@link PlanSegment}s on a {@link PlanTimeline}, indexed by direction,
+ * and all indexes are updated in place, so planning one more target costs O(log n) per touched segment
+ * instead of rebuilding everything from scratch. The individual states are only created when they are consumed.
+ * <p>
+ * Segments know only their durations, the moments are kept by the timeline as offsets,
+ * so postponing the rest of the plan is a single offset change rather than rescheduling every segment.
+ * <p>
+ * The direction of a segment is remembered when it is planned:
+ * the sign of its speed, or, for a standing elevator, the direction of the previous planned segment.
+ * Nothing precedes the first segment, so a standing elevator at the head of the plan has no direction,
+ * and neither have the standing segments right after it.
+ * <p>
+ * The indexes by floor are arrays indexed by the floor, with bitsets of the floors which have anything planned,
+ * so a lookup costs the same in a skyscraper as in a five-floor house.
+ * <p>
+ * The next opening of the doors at every floor is cached until the plan changes,
+ * so a display asking about many floors again and again pays for the lookups once per replan.
+ * <p>
+ * (Not thread-safe, guarded by the owning {@link Elevator})
+ */
+class ElevatorPlan {
+    private final static Logger log = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+
+    private static final long NOT_CACHED = Long.MIN_VALUE;
+
+    interface SegmentVisitor {
+        /**
+         * @return false to stop the walk
+         */
+        boolean visit(@Nonnull PlanSegment segment,
+                      long firstEpochNanos);
+    }
+
+    /**
+     * The segments ending at every floor, each floor in chronological order.
+     */
+    private static final class FloorIndex {
+        private final int minFloor;
+        private final Comparator<Node> chronological;
+        private final TreeSet<Node>[] nodesByFloor; // created on demand, kept when empty
+        private final BitSet floors = new BitSet(); // the floors which have any nodes
+
+        @SuppressWarnings("unchecked")
+        private FloorIndex(final int minFloor,
+                           final int maxFloor,
+                           @Nonnull final Comparator<Node> chronological) {
+            this.minFloor = minFloor;
+            this.chronological = chronological;
+            nodesByFloor = (TreeSet<Node>[]) new TreeSet<?>[maxFloor - minFloor + 1];
+        }
+
+        private void add(final int floor,
+                         @Nonnull final Node node) {
+            final int index = floor - minFloor;
+            if (nodesByFloor[index] == null) {
+                nodesByFloor[index] = new TreeSet<>(chronological);
+            }
+            nodesByFloor[index].add(node);
+            floors.set(index);
+        }
+
+        private void remove(final int floor,
+                            @Nonnull final Node node) {
+            final int index = floor - minFloor;
+            final TreeSet<Node> nodes = nodesByFloor[index];
+            if (nodes != null && nodes.remove(node) && nodes.isEmpty()) {
+                floors.clear(index);
+            }
+        }
+
+        private boolean contains(final int floor) {
+            return floors.get(floor - minFloor);
+        }
+
+        /**
+         * @return the earliest node at the given floor, or null
+         */
+        private Node earliest(final int floor) {
+            final int index = floor - minFloor;
+            return floors.get(index) ? nodesByFloor[index].first() : null;
+        }
+
+        /**
+         * @return the earliest node at the highest floor, or null
+         */
+        private Node highest() {
+            final int index = floors.length() - 1;
+            return index < 0 ? null : nodesByFloor[index].first();
+        }
+
+        /**
+         * @return the earliest node at the lowest floor, or null
+         */
+        private Node lowest() {
+            final int index = floors.nextSetBit(0);
+            return index < 0 ? null : nodesByFloor[index].first();
+        }
+    }
+
+    private final int minFloor;
+    private final PlanTimeline timeline = new PlanTimeline();
+    private final FloorIndex upwardsByLastFloor;
+    private final FloorIndex downwardsByLastFloor;
+    private final FloorIndex openedDoorsByFloor;
+    private final long[] nextOpenedEpochNanosByFloor; // cached, NOT_CACHED until asked for after a change
+    private boolean anyOpenedCached;
+    private int statesCount;
+    private int consumedOfFirst; // states of the first segment which are already consumed
+    private ElevatorTrace trace; // null unless traced
+
+    public ElevatorPlan(final int minFloor,
+                        final int maxFloor) {
+        this.minFloor = minFloor;
+        final Comparator<Node> chronological = Comparator.comparingInt(timeline::rankOf);
+        upwardsByLastFloor = new FloorIndex(minFloor, maxFloor, chronological);
+        downwardsByLastFloor = new FloorIndex(minFloor, maxFloor, chronological);
+        openedDoorsByFloor = new FloorIndex(minFloor, maxFloor, chronological);
+        nextOpenedEpochNanosByFloor = new long[maxFloor - minFloor + 1];
+        Arrays.fill(nextOpenedEpochNanosByFloor, NOT_CACHED);
+    }
+
+    /**
+     * @return the number of planned states which are not consumed yet
+     */
+    public int size() {
+        return statesCount - consumedOfFirst;
+    }
+
+    public void setTrace(final ElevatorTrace trace) {
+        this.trace = trace;
+    }
+
+    public int segmentCount() {
+        return timeline.size();
+    }
+
+    public boolean isEmpty() {
+        return timeline.isEmpty();
+    }
+
+    /**
+     * @return the moment of the next planned state, or {@link Long#MAX_VALUE} if nothing is planned
+     */
+    public long peekFirstEpochNanos() {
+        final Node first = timeline.first();
+        return first == null
+               ? Long.MAX_VALUE
+               : timeline.firstEpochNanosOf(first) + first.getSegment().offsetNanosAt(consumedOfFirst);
+    }
+
+    public ElevatorState pollFirst() {
+        final Node first = timeline.first();
+        if (first == null) {
+            return null;
+        }
+        final PlanSegment segment = first.getSegment();
+        final ElevatorState state = segment.stateAt(timeline.firstEpochNanosOf(first), consumedOfFirst);
+        consumedOfFirst++;
+        if (state.getDoorsState() == DoorsState.OPENED) {
+            nextOpenedEpochNanosByFloor[state.getFloor() - minFloor] = NOT_CACHED;
+        }
+        if (consumedOfFirst == segment.size()) {
+            remove(first);
+            consumedOfFirst = 0;
+            redirectFirst();
+        }
+        return state;
+    }
+
+    public ElevatorState peekLast() {
+        final Node last = timeline.last();
+        return last == null
+               ? null
+               : lastStateOf(last);
+    }
+
+    public boolean hasOpenedDoorsAt(final int floor) {
+        return openedDoorsByFloor.contains(floor);
+    }
+
+    /**
+     * @return the moment the doors are planned to open at the given floor next time,
+     * or {@link Long#MAX_VALUE} if they are not
+     */
+    public long nextOpenedEpochNanos(final int floor) {
+        final int index = floor - minFloor;
+        long result = nextOpenedEpochNanosByFloor[index];
+        if (result == NOT_CACHED) {
+            final Node opened = openedDoorsByFloor.earliest(floor);
+            result = opened == null
+                     ? Long.MAX_VALUE
+                     : timeline.lastEpochNanosOf(opened);
+            nextOpenedEpochNanosByFloor[index] = result;
+            anyOpenedCached = true;
+        }
+        return result;
+    }
+
+    /**
+     * Finds the segment in progress at the given moment in O(log n).
+     *
+     * @return the latest state planned at the given moment or earlier, or null if nothing is planned by then
+     */
+    public ElevatorState stateAt(final long epochNanos) {
+        trimFirst();
+        final Node node = timeline.floor(epochNanos);
+        if (node == null) {
+            return null;
+        }
+        final PlanSegment segment = node.getSegment();
+        final long firstEpochNanos = timeline.firstEpochNanosOf(node);
+        return segment.stateAt(firstEpochNanos, segment.countWithin(epochNanos - firstEpochNanos) - 1);
+    }
+
+    /**
+     * Looks through the segments from the end of the plan back to the last stop at the given floor,
+     * which are few, since a single segment covers a whole trip.
+     *
+     * @return the latest state planned at the given floor, or null
+     */
+    public ElevatorState lastAt(final int floor) {
+        trimFirst();
+        for (Node node = timeline.last(); node != null; node = timeline.previous(node)) {
+            final int index = node.getSegment().indexOfFloor(floor);
+            if (index >= 0) {
+                return node.getSegment().stateAt(timeline.firstEpochNanosOf(node), index);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return the earliest state at the highest floor reached while going up,
+     * or the last planned state if nothing goes up higher than it
+     */
+    public ElevatorState highestUpwards() {
+        trimFirst();
+        final ElevatorState last = peekLast();
+        final Node highest = upwardsByLastFloor.highest();
+        if (last != null && highest != null && highest.getSegment().getLastFloor() > last.getFloor()) {
+            return lastStateOf(highest);
+        }
+        return last;
+    }
+
+    /**
+     * @return the earliest state at the lowest floor reached while going down,
+     * or the last planned state if nothing goes down lower than it
+     */
+    public ElevatorState lowestDownwards() {
+        trimFirst();
+        final ElevatorState last = peekLast();
+        final Node lowest = downwardsByLastFloor.lowest();
+        if (last != null && lowest != null && lowest.getSegment().getLastFloor() < last.getFloor()) {
+            return lastStateOf(lowest);
+        }
+        return last;
+    }
+
+    /**
+     * Visits the first segment which passes the given floor, in O(log n).
+     *
+     * @return false if no segment passes the floor, so nothing is visited
+     */
+    public boolean visitFirstPassing(final int floor,
+                                     @Nonnull final SegmentVisitor visitor) {
+        trimFirst();
+        return visit(timeline.firstPassing(floor), visitor);
+    }
+
+    /**
+     * Visits the last segment which reaches the highest planned floor, in O(log n).
+     *
+     * @return false if nothing is planned
+     */
+    public boolean visitLastAtHighest(@Nonnull final SegmentVisitor visitor) {
+        trimFirst();
+        return visit(timeline.lastAtHighest(), visitor);
+    }
+
+    /**
+     * Visits the last segment which reaches the lowest planned floor, in O(log n).
+     *
+     * @return false if nothing is planned
+     */
+    public boolean visitLastAtLowest(@Nonnull final SegmentVisitor visitor) {
+        trimFirst();
+        return visit(timeline.lastAtLowest(), visitor);
+    }
+
+    /**
+     * Visits the last segment of the plan.
+     *
+     * @return false if nothing is planned
+     */
+    public boolean visitLast(@Nonnull final SegmentVisitor visitor) {
+        return visit(timeline.last(), visitor);
+    }
+
+    private boolean visit(final Node node,
+                          @Nonnull final SegmentVisitor visitor) {
+        if (node == null) {
+            return false;
+        }
+        visitor.visit(node.getSegment(), timeline.firstEpochNanosOf(node));
+        return true;
+    }
+
+    public boolean isAnyoneLater(final long epochNanos) {
+        final Node last = timeline.last();
+        return last != null && timeline.lastEpochNanosOf(last) > epochNanos;
+    }
+
+    /**
+     * Inserts new segments (in chronological order) right after the given moment
+     * and postpones everything planned after that moment by the given number of nanoseconds.
+     * A segment which is in progress at that moment is split in two.
+     * <p>
+     * The postponed segments are neither touched nor re-created, only the offset of the first of them changes.
+     */
+    public void insert(final long afterEpochNanos,
+                       @Nonnull final List<PlanSegment> newSegments,
+                       final long postponementNanos) {
+        trimFirst();
+        forgetOpened();
+        final Node previous = timeline.floor(afterEpochNanos);
+        if (previous != null && timeline.lastEpochNanosOf(previous) > afterEpochNanos) {
+            final PlanSegment inProgress = previous.getSegment();
+            final long firstEpochNanos = timeline.firstEpochNanosOf(previous);
+            final int count = inProgress.countWithin(afterEpochNanos - firstEpochNanos);
+            replaceSegment(previous, inProgress.head(count));
+            add(previous, inProgress.tail(count), previous.getDirection(),
+                    firstEpochNanos + inProgress.offsetNanosAt(count));
+        }
+        final Node later = previous == null
+                           ? timeline.first()
+                           : timeline.next(previous);
+        if (later != null) {
+            timeline.postpone(later, postponementNanos);
+            log.debug("postpone the rest of the plan by {} ns, starting from: {}", postponementNanos, later.getSegment());
+            if (trace != null) {
+                trace.record(TraceEvent.POSTPONED, afterEpochNanos, later.getSegment().getFirstFloor(),
+                        postponementNanos);
+            }
+        }
+        Node cursor = previous;
+        long epochNanos = afterEpochNanos;
+        for (final PlanSegment segment : newSegments) {
+            epochNanos += segment.getLeadNanos();
+            cursor = add(cursor, segment, directionAfter(cursor, segment), epochNanos);
+            epochNanos += segment.getDurationNanos();
+        }
+        redirectStandingAfter(cursor);
+    }
+
+    /**
+     * Walks the segments which are still ahead, in chronological order.
+     */
+    public void forEachSegment(@Nonnull final SegmentVisitor visitor) {
+        trimFirst();
+        final Node first = timeline.first();
+        if (first == null) {
+            return;
+        }
+        long firstEpochNanos = timeline.firstEpochNanosOf(first);
+        for (Node node = first; node != null; node = timeline.next(node)) {
+            if (node != first) {
+                firstEpochNanos += node.getOffsetNanos();
+            }
+            if (!visitor.visit(node.getSegment(), firstEpochNanos)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Makes the elevator stand still at the state planned at the given moment, instead of passing the floor:
+     * the segment is split right after that state, if needed.
+     */
+    public void stopAt(final long epochNanos) {
+        trimFirst();
+        forgetOpened();
+        final Node node = timeline.floor(epochNanos);
+        if (node == null) {
+            throw new IllegalStateException("Internal error: Nothing is planned at " + epochNanos);
+        }
+        final PlanSegment segment = node.getSegment();
+        final long firstEpochNanos = timeline.firstEpochNanosOf(node);
+        final int count = segment.countWithin(epochNanos - firstEpochNanos);
+        if (firstEpochNanos + segment.offsetNanosAt(count - 1) != epochNanos) {
+            throw new IllegalStateException("Internal error: No state is planned exactly at " + epochNanos);
+        }
+        replaceSegment(node, segment.head(count).stoppingAtEnd());
+        redirect(node, directionAfter(timeline.previous(node), node.getSegment()));
+        if (count < segment.size()) {
+            final PlanSegment tail = segment.tail(count);
+            add(node, tail, directionAfter(node, tail), firstEpochNanos + segment.offsetNanosAt(count));
+        }
+    }
+
+    /**
+     * Forgets the whole plan.
+     */
+    public void clear() {
+        forgetOpened();
+        Node first;
+        while ((first = timeline.first()) != null) {
+            remove(first);
+        }
+        consumedOfFirst = 0;
+    }
+
+    /**
+     * Appends a segment with its first state at the given moment.
+     */
+    public void append(@Nonnull final PlanSegment segment,
+                       final long firstEpochNanos) {
+        forgetOpened();
+        final Node last = timeline.last();
+        add(last, segment, directionAfter(last, segment), firstEpochNanos);
+    }
+
+    @Nonnull
+    private ElevatorState lastStateOf(@Nonnull final Node node) {
+        final PlanSegment segment = node.getSegment();
+        return segment.stateAt(timeline.firstEpochNanosOf(node), segment.size() - 1);
+    }
+
+    /**
+     * A standing elevator keeps the direction of the previous planned segment.
+     */
+    @Nonnull
+    private static Direction directionAfter(final Node previous,
+                                            @Nonnull final PlanSegment segment) {
+        final Direction direction = segment.getDirection();
+        return direction == Direction.NEUTRAL && previous != null
+               ? previous.getDirection()
+               : direction;
+    }
+
+    /**
+     * The segments right after the given one have got a new predecessor, or it has got a new direction:
+     * the standing ones among them take over its direction, up to the first moving one.
+     * The walk stops at the first segment which has the right direction already, since the rest follow it.
+     */
+    private void redirectStandingAfter(@Nonnull final Node changed) {
+        Node previous = changed;
+        Node node = timeline.next(changed);
+        while (node != null && node.getSegment().getDirection() == Direction.NEUTRAL
+                && node.getDirection() != previous.getDirection()) {
+            unindex(node);
+            timeline.setDirection(node, previous.getDirection());
+            index(node);
+            previous = node;
+            node = timeline.next(node);
+        }
+    }
+
+    /**
+     * The first segment has lost its predecessor, which is consumed now.
+     */
+    private void redirectFirst() {
+        final Node first = timeline.first();
+        if (first != null) {
+            redirect(first, directionAfter(null, first.getSegment()));
+        }
+    }
+
+    /**
+     * Changes the direction of a segment, and of the standing segments which follow it.
+     */
+    private void redirect(@Nonnull final Node node,
+                          @Nonnull final Direction direction) {
+        if (direction != node.getDirection()) {
+            unindex(node);
+            timeline.setDirection(node, direction);
+            index(node);
+            redirectStandingAfter(node);
+        }
+    }
+
+    @Nonnull
+    private Node add(final Node previous,
+                     @Nonnull final PlanSegment segment,
+                     @Nonnull final Direction direction,
+                     final long firstEpochNanos) {
+        final Node node = timeline.insertAfter(previous, segment, direction, firstEpochNanos);
+        statesCount += segment.size();
+        index(node);
+        return node;
+    }
+
+    private void replaceSegment(@Nonnull final Node node,
+                                @Nonnull final PlanSegment segment) {
+        unindex(node);
+        statesCount += segment.size() - node.getSegment().size();
+        timeline.setSegment(node, segment);
+        index(node);
+    }
+
+    private void remove(@Nonnull final Node node) {
+        unindex(node); // while the node still has its place in the timeline
+        timeline.remove(node);
+        statesCount -= node.getSegment().size();
+    }
+
+    private void index(@Nonnull final Node node) {
+        final PlanSegment segment = node.getSegment();
+        if (node.getDirection() == Direction.UP) {
+            upwardsByLastFloor.add(segment.getLastFloor(), node);
+        } else if (node.getDirection() == Direction.DOWN) {
+            downwardsByLastFloor.add(segment.getLastFloor(), node);
+        }
+        if (segment.getDoorsState() == DoorsState.OPENED) {
+            openedDoorsByFloor.add(segment.getLastFloor(), node);
+        }
+    }
+
+    private void unindex(@Nonnull final Node node) {
+        final PlanSegment segment = node.getSegment();
+        if (node.getDirection() == Direction.UP) {
+            upwardsByLastFloor.remove(segment.getLastFloor(), node);
+        } else if (node.getDirection() == Direction.DOWN) {
+            downwardsByLastFloor.remove(segment.getLastFloor(), node);
+        }
+        if (segment.getDoorsState() == DoorsState.OPENED) {
+            openedDoorsByFloor.remove(segment.getLastFloor(), node);
+        }
+    }
+
+    /**
+     * Drops the cached openings after the moments of the plan have changed.
+     */
+    private void forgetOpened() {
+        if (anyOpenedCached) {
+            Arrays.fill(nextOpenedEpochNanosByFloor, NOT_CACHED);
+            anyOpenedCached = false;
+        }
+    }
+
+    /**
+     * Replaces the partially consumed first segment with its remainder,
+     * so that the lookups only see what is still ahead.
+     */
+    private void trimFirst() {
+        if (consumedOfFirst > 0) {
+            final Node first = timeline.first();
+            final PlanSegment segment = first.getSegment();
+            final long epochNanos = timeline.firstEpochNanosOf(first) + segment.offsetNanosAt(consumedOfFirst);
+            final int consumed = consumedOfFirst;
+            remove(first);
+            consumedOfFirst = 0;
+            final PlanSegment rest = segment.tail(consumed);
+            redirect(add(null, rest, first.getDirection(), epochNanos), directionAfter(null, rest));
+        }
+    }
+}
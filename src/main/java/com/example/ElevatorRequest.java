@@ -0,0 +1,46 @@
+package com.example;
+
+import javax.annotation.Nonnull;
+
+/**
+ * (Immutable) A hall call (someone is waiting at the floor) or a car call (someone inside wants to go to the floor),
+ * for planning many of them at once with {@link Elevator#planAll}.
+ */
+public class ElevatorRequest {
+
+    private final boolean hallCall;
+    private final int floor;
+
+    private ElevatorRequest(final boolean hallCall,
+                            final int floor) {
+        this.hallCall = hallCall;
+        this.floor = floor;
+    }
+
+    @Nonnull
+    public static ElevatorRequest hallCall(final int floor) {
+        return new ElevatorRequest(true, floor);
+    }
+
+    @Nonnull
+    public static ElevatorRequest carCall(final int floor) {
+        return new ElevatorRequest(false, floor);
+    }
+
+    @Override
+    public String toString() {
+        return (hallCall ? "hall call to the floor # " : "car call to the floor # ") + floor;
+    }
+
+    /* --------
+     * Getters
+     */
+
+    public boolean isHallCall() {
+        return hallCall;
+    }
+
+    public int getFloor() {
+        return floor;
+    }
+}
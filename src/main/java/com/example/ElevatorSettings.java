@@ -0,0 +1,152 @@
+package com.example;
+
+import javax.annotation.Nonnull;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * (Immutable) The parameters of the building and its elevator cars, as given on the command line.
+ */
+public class ElevatorSettings {
+
+    private final int minFloor;
+    private final int floors;
+    private final double height;
+    private final double speed;
+    private final double timeoutInSeconds;
+    private final int cars;
+    private final PlannerType planner;
+    private final Kinematics kinematics; // null if the cars start and stop at once
+
+    public ElevatorSettings(final int floors,
+                            final double height,
+                            final double speed,
+                            final double timeoutInSeconds,
+                            final int cars,
+                            @Nonnull final PlannerType planner) {
+        this(1, floors, height, speed, timeoutInSeconds, cars, planner);
+    }
+
+    /**
+     * @param minFloor the lowest floor, zero or negative if there are basements
+     * @param floors   the highest floor
+     */
+    public ElevatorSettings(final int minFloor,
+                            final int floors,
+                            final double height,
+                            final double speed,
+                            final double timeoutInSeconds,
+                            final int cars,
+                            @Nonnull final PlannerType planner) {
+        this(minFloor, floors, height, speed, timeoutInSeconds, cars, planner, null);
+    }
+
+    /**
+     * @param speed      the maximum speed, if the kinematics are given
+     * @param kinematics how the cars speed up and slow down; null if they start and stop at once
+     */
+    public ElevatorSettings(final int minFloor,
+                            final int floors,
+                            final double height,
+                            final double speed,
+                            final double timeoutInSeconds,
+                            final int cars,
+                            @Nonnull final PlannerType planner,
+                            final Kinematics kinematics) {
+        this.minFloor = minFloor;
+        this.floors = floors;
+        this.height = height;
+        this.speed = speed;
+        this.timeoutInSeconds = timeoutInSeconds;
+        this.cars = cars;
+        this.planner = planner;
+        this.kinematics = kinematics;
+    }
+
+    @Override
+    public String toString() {
+        return "ElevatorSettings{" +
+                "minFloor=" + minFloor +
+                ", floors=" + floors +
+                ", height=" + height +
+                ", speed=" + speed +
+                ", timeout=" + timeoutInSeconds +
+                ", cars=" + cars +
+                ", planner=" + planner +
+                (kinematics == null ? "" : ", kinematics=" + kinematics) +
+                '}';
+    }
+
+    /**
+     * Checks the settings up front, without building the cars.
+     *
+     * @throws ElevatorException if no bank can be created with these settings
+     */
+    public void validate() {
+        Elevator.checkParameters(minFloor, floors, height, speed, timeoutInSeconds);
+        if (cars < 1) {
+            throw new ElevatorException("Please provide at least one elevator car.");
+        }
+    }
+
+    @Nonnull
+    public ElevatorBank createBank(@Nonnull final SimulationClock clock) {
+        return createBank(clock, false);
+    }
+
+    /**
+     * @see ElevatorBank#ElevatorBank(List, boolean)
+     */
+    @Nonnull
+    public ElevatorBank createBank(@Nonnull final SimulationClock clock,
+                                   final boolean planOnCallerThread) {
+        final List<Elevator> elevators = new ArrayList<>(cars);
+        for (int i = 0; i < cars; i++) {
+            elevators.add(new Elevator(minFloor, floors, height, speed, timeoutInSeconds, clock, planner, kinematics));
+        }
+        return new ElevatorBank(elevators, planOnCallerThread);
+    }
+
+    /* --------
+     * Getters
+     */
+
+    public int getMinFloor() {
+        return minFloor;
+    }
+
+    /**
+     * @return the highest floor
+     */
+    public int getFloors() {
+        return floors;
+    }
+
+    public double getHeight() {
+        return height;
+    }
+
+    public double getSpeed() {
+        return speed;
+    }
+
+    public double getTimeoutInSeconds() {
+        return timeoutInSeconds;
+    }
+
+    public int getCars() {
+        return cars;
+    }
+
+    @Nonnull
+    public PlannerType getPlanner() {
+        return planner;
+    }
+
+    /**
+     * @return null if the cars start and stop at once
+     */
+    public Kinematics getKinematics() {
+        return kinematics;
+    }
+}
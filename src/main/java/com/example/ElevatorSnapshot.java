@@ -0,0 +1,70 @@
+package com.example;
+
+import javax.annotation.Nonnull;
+
+/**
+ * (Immutable) What an {@link Elevator} looks like from outside at some moment:
+ * its current state and a summary of its plan.
+ * <p>
+ * A new snapshot is published after every change, so it can be read without any locking.
+ */
+public class ElevatorSnapshot {
+
+    @Nonnull
+    private final ElevatorState currentState;
+    private final int planSize;
+    private final long nextPlannedEpochNanos;
+
+    public ElevatorSnapshot(@Nonnull final ElevatorState currentState,
+                            final int planSize,
+                            final long nextPlannedEpochNanos) {
+        this.currentState = currentState;
+        this.planSize = planSize;
+        this.nextPlannedEpochNanos = nextPlannedEpochNanos;
+    }
+
+    @Override
+    public String toString() {
+        return "ElevatorSnapshot{" +
+                "currentState=" + currentState +
+                ", planSize=" + planSize +
+                ", next=" + (nextPlannedEpochNanos == Long.MAX_VALUE
+                             ? "none"
+                             : SimulationClock.toInstant(nextPlannedEpochNanos).toString()) +
+                '}';
+    }
+
+    @Nonnull
+    public ElevatorSnapshot withCurrentState(@Nonnull final ElevatorState newState) {
+        return new ElevatorSnapshot(newState, planSize, nextPlannedEpochNanos);
+    }
+
+    @Nonnull
+    public ElevatorSnapshot withPlan(final int newPlanSize,
+                                     final long newNextPlannedEpochNanos) {
+        return new ElevatorSnapshot(currentState, newPlanSize, newNextPlannedEpochNanos);
+    }
+
+    /* --------
+     * Getters
+     */
+
+    @Nonnull
+    public ElevatorState getCurrentState() {
+        return currentState;
+    }
+
+    /**
+     * @return the number of planned states which are not reached yet
+     */
+    public int getPlanSize() {
+        return planSize;
+    }
+
+    /**
+     * @return the moment of the next planned state, or {@link Long#MAX_VALUE} if nothing is planned
+     */
+    public long getNextPlannedEpochNanos() {
+        return nextPlannedEpochNanos;
+    }
+}
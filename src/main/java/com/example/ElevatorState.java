@@ -1,27 +1,20 @@
 package com.example;
 
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
-
 import javax.annotation.Nonnull;
-import java.lang.invoke.MethodHandles;
 import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
 import java.time.temporal.ChronoUnit;
-import java.util.concurrent.Delayed;
-import java.util.concurrent.TimeUnit;
-
-import static com.example.Constants.NANOS_PER_SECOND;
 
 /**
  * (Immutable)
+ * <p>
+ * A state may be planned any time ahead: under a heavy load, or in a tall building, the plan runs for hours.
  */
-public class ElevatorState implements Delayed {
-    private final static Logger log = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
-
+public class ElevatorState {
     @Nonnull
     private final Instant plannedInstant;
+    private final long plannedEpochNanos;
     private final int floor;
     private final DoorsState doorsState;
     private final double speed;
@@ -30,16 +23,17 @@ public class ElevatorState implements Delayed {
                          final int floor,
                          final DoorsState doorsState,
                          final double speed) {
-        if (Math.abs(plannedInstant.getEpochSecond() - Instant.now().getEpochSecond()) > 60 * 60) {
-            throw new IllegalArgumentException(
-                    "Possible error: Attempted to plan a state more than an hour from the current moment");
-        }
-        this.plannedInstant = plannedInstant;
+        this(SimulationClock.toEpochNanos(plannedInstant), floor, doorsState, speed);
+    }
 
-        if (floor < 1) {
-            throw new IllegalArgumentException("Floor should not be less than 1");
-        }
-        this.floor = floor;
+    public ElevatorState(final long plannedEpochNanos,
+                         final int floor,
+                         final DoorsState doorsState,
+                         final double speed) {
+        this.plannedEpochNanos = plannedEpochNanos;
+        this.plannedInstant = SimulationClock.toInstant(plannedEpochNanos);
+
+        this.floor = floor; // checked by the elevator, the basements are zero or negative
 
         this.doorsState = doorsState;
 
@@ -66,7 +60,7 @@ public class ElevatorState implements Delayed {
         if (Double.compare(that.speed, speed) != 0) {
             return false;
         }
-        if (plannedInstant != null ? !plannedInstant.equals(that.plannedInstant) : that.plannedInstant != null) {
+        if (plannedEpochNanos != that.plannedEpochNanos) {
             return false;
         }
         return doorsState == that.doorsState;
@@ -76,7 +70,7 @@ public class ElevatorState implements Delayed {
     public int hashCode() {
         int result;
         long temp;
-        result = plannedInstant != null ? plannedInstant.hashCode() : 0;
+        result = (int) (plannedEpochNanos ^ (plannedEpochNanos >>> 32));
         result = 31 * result + floor;
         result = 31 * result + (doorsState != null ? doorsState.hashCode() : 0);
         temp = Double.doubleToLongBits(speed);
@@ -96,53 +90,6 @@ public class ElevatorState implements Delayed {
                 '}';
     }
 
-    @Override
-    public long getDelay(@Nonnull final TimeUnit unit) {
-        final Instant now = Instant.now();
-        final long differenceInSeconds = plannedInstant.getEpochSecond() - now.getEpochSecond();
-        final long result;
-        switch (unit) {
-            case NANOSECONDS:
-                result = differenceInSeconds * NANOS_PER_SECOND +
-                        plannedInstant.getNano() - now.getNano();
-                break;
-            case MICROSECONDS:
-                result = TimeUnit.SECONDS.toMicros(differenceInSeconds) +
-                        TimeUnit.NANOSECONDS.toMicros(plannedInstant.getNano() - now.getNano());
-                break;
-            case MILLISECONDS:
-                result = TimeUnit.SECONDS.toMillis(differenceInSeconds) +
-                        TimeUnit.NANOSECONDS.toMillis(plannedInstant.getNano() - now.getNano());
-                break;
-            case SECONDS:
-                result = TimeUnit.SECONDS.toSeconds(differenceInSeconds);
-                break;
-            case MINUTES:
-                result = TimeUnit.SECONDS.toMinutes(differenceInSeconds);
-                break;
-            case HOURS:
-                result = TimeUnit.SECONDS.toHours(differenceInSeconds);
-                break;
-            case DAYS:
-                result = TimeUnit.SECONDS.toDays(differenceInSeconds);
-                break;
-            default:
-                result = differenceInSeconds;
-        }
-        return result;
-    }
-
-    @Override
-    public int compareTo(@Nonnull final Delayed that) {
-        int result = Long.compare(this.getDelay(TimeUnit.NANOSECONDS), that.getDelay(TimeUnit.NANOSECONDS));
-        if (result == 0 && this != that) { // yes, comparing objects by their memory address is exactly what is needed here
-            log.warn("These states are planned for exactly the same instant of time (equal even in nanos):" +
-                    "\n // " + this +
-                    "\n // " + that);
-        }
-        return result;
-    }
-
     /* --------
      * Getters
      */
@@ -152,6 +99,10 @@ public class ElevatorState implements Delayed {
         return plannedInstant;
     }
 
+    public long getPlannedEpochNanos() {
+        return plannedEpochNanos;
+    }
+
     public int getFloor() {
         return floor;
     }
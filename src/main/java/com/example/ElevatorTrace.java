@@ -0,0 +1,142 @@
+package com.example;
+
+import javax.annotation.Nonnull;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * The latest events of an elevator, kept in a ring of preallocated primitive arrays,
+ * so recording an event neither allocates nor formats anything and tracing can stay always on.
+ * The events are only turned into text when they are {@link #dump dumped}, on demand or after an error.
+ * <p>
+ * (Thread-safe)
+ */
+public class ElevatorTrace {
+
+    public static final int DEFAULT_CAPACITY = 1 << 12;
+
+    private static final TraceEvent[] EVENTS = TraceEvent.values();
+    private static final DoorsState[] DOORS_STATES = DoorsState.values();
+    private static final byte NO_DOORS_STATE = -1;
+
+    private final int mask;
+    // guarded by this
+    private final byte[] events;
+    private final long[] epochNanos;
+    private final int[] floors;
+    private final byte[] doorsStates;
+    private final double[] speeds;
+    private final long[] values;
+    private long count;
+
+    public ElevatorTrace() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param capacity the number of the latest events to keep, rounded up to a power of two
+     */
+    public ElevatorTrace(final int capacity) {
+        if (capacity < 1 || capacity > 1 << 24) {
+            throw new ElevatorException("Please provide the trace capacity between 1 and " + (1 << 24) + " events.");
+        }
+        final int size = capacity == 1 ? 1 : Integer.highestOneBit(capacity - 1) << 1;
+        mask = size - 1;
+        events = new byte[size];
+        epochNanos = new long[size];
+        floors = new int[size];
+        doorsStates = new byte[size];
+        speeds = new double[size];
+        values = new long[size];
+    }
+
+    @Override
+    public String toString() {
+        return "ElevatorTrace{" +
+                "capacity=" + (mask + 1) +
+                '}';
+    }
+
+    /**
+     * Records an event which is not about a particular state, e.g. a call to the floor.
+     */
+    public void record(@Nonnull final TraceEvent event,
+                       final long epochNanos,
+                       final int floor,
+                       final long value) {
+        record(event, epochNanos, floor, NO_DOORS_STATE, 0.0d, value);
+    }
+
+    /**
+     * Records an event about the given state, at the moment the state is planned for.
+     */
+    public void record(@Nonnull final TraceEvent event,
+                       @Nonnull final ElevatorState state,
+                       final long value) {
+        record(event, state.getPlannedEpochNanos(), state.getFloor(),
+                (byte) state.getDoorsState().ordinal(), state.getSpeed(), value);
+    }
+
+    synchronized
+    private void record(@Nonnull final TraceEvent event,
+                        final long epochNanos,
+                        final int floor,
+                        final byte doorsState,
+                        final double speed,
+                        final long value) {
+        final int index = (int) count & mask;
+        this.events[index] = (byte) event.ordinal();
+        this.epochNanos[index] = epochNanos;
+        this.floors[index] = floor;
+        this.doorsStates[index] = doorsState;
+        this.speeds[index] = speed;
+        this.values[index] = value;
+        count++;
+    }
+
+    /**
+     * @return the number of events recorded so far, including the ones which have been overwritten
+     */
+    synchronized
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * Writes the kept events as text, one per line, the oldest first.
+     */
+    synchronized
+    public void dump(@Nonnull final Appendable out) throws IOException {
+        final long first = Math.max(0L, count - (mask + 1));
+        if (first > 0) {
+            out.append("... ").append(Long.toString(first)).append(" earlier events are overwritten\n");
+        }
+        for (long i = first; i < count; i++) {
+            final int index = (int) i & mask;
+            final TraceEvent event = EVENTS[events[index]];
+            out.append(SimulationClock.toInstant(epochNanos[index]).toString())
+               .append(' ').append(event.name())
+               .append(" floor # ").append(Integer.toString(floors[index]));
+            if (doorsStates[index] != NO_DOORS_STATE) {
+                out.append(", doors ").append(DOORS_STATES[doorsStates[index]].name())
+                   .append(", speed ").append(Double.toString(speeds[index]));
+            }
+            if (event.hasValue()) {
+                out.append(", ").append(Long.toString(values[index]))
+                   .append(' ').append(event.getValueDescription());
+            }
+            out.append('\n');
+        }
+    }
+
+    @Nonnull
+    public String dump() {
+        final StringBuilder result = new StringBuilder();
+        try {
+            dump(result);
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e); // never thrown by a StringBuilder
+        }
+        return result.toString();
+    }
+}
@@ -0,0 +1,170 @@
+package com.example;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nonnull;
+import java.lang.invoke.MethodHandles;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Plans every new stop as an excursion: from the last visit of the floor
+ * (or the farthest point in the wanted direction) to the floor, the doors, and back,
+ * postponing everything planned after the start of the excursion.
+ *
+ * @see PlannerType#EXCURSIONS
+ */
+final class ExcursionPlanner implements MovementPlanner {
+    private final static Logger log = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+
+    private final Elevator elevator;
+
+    ExcursionPlanner(@Nonnull final Elevator elevator) {
+        this.elevator = elevator;
+    }
+
+    @Override
+    public boolean planStop(@Nonnull final ElevatorPlan plan,
+                            @Nonnull final ElevatorState currState,
+                            final int targetFloor) {
+        log.trace("ExcursionPlanner.planStop() started...");
+
+        final SimulationClock clock = elevator.getClock();
+        final Direction wantedDirection = Direction.of(targetFloor - currState.getFloor());
+        final List<PlanSegment> newElements = new ArrayList<>();
+        final ElevatorState parentElement;
+        final long startTime;
+        long plannedTime;
+        final boolean allDone = plan.hasOpenedDoorsAt(targetFloor);
+        log.debug("allDone: {}", allDone);
+        if (!allDone) {
+            final ElevatorState lastAtTarget = plan.lastAt(targetFloor);
+            switch (wantedDirection) {
+                case UP:
+                    if (lastAtTarget != null) {
+                        log.debug("parentElement = lastAtTarget");
+                        parentElement = lastAtTarget;
+                    } else if (!plan.isEmpty()) {
+                        log.debug("selecting the highest");
+                        parentElement = plan.highestUpwards();
+                    } else {
+                        log.debug("parentElement = currState");
+                        parentElement = currState;
+                    }
+                    plannedTime = startTime = Math.max(parentElement.getPlannedEpochNanos(), clock.epochNanos());
+                    plannedTime = internalGoUpwards(parentElement.getFloor(), targetFloor, newElements, plannedTime);
+                    plannedTime = internalOpenDoors(targetFloor, newElements, plannedTime);
+                    if (isAnyoneLater(plan, startTime)) {
+                        plannedTime = internalGoDownwards(
+                                targetFloor, parentElement.getFloor(), newElements, plannedTime);
+                    }
+                    break;
+                case NEUTRAL:
+                    parentElement = currState;
+                    plannedTime = startTime = clock.epochNanos();
+                    plannedTime = internalOpenDoors(targetFloor, newElements, plannedTime);
+                    break;
+                case DOWN:
+                    if (lastAtTarget != null) {
+                        log.debug("parentElement = lastAtTarget");
+                        parentElement = lastAtTarget;
+                    } else if (!plan.isEmpty()) {
+                        log.debug("selecting the lowest");
+                        parentElement = plan.lowestDownwards();
+                    } else {
+                        log.debug("parentElement = currState");
+                        parentElement = currState;
+                    }
+                    plannedTime = startTime = Math.max(parentElement.getPlannedEpochNanos(), clock.epochNanos());
+                    plannedTime = internalGoDownwards(parentElement.getFloor(), targetFloor, newElements, plannedTime);
+                    plannedTime = internalOpenDoors(targetFloor, newElements, plannedTime);
+                    if (isAnyoneLater(plan, startTime)) {
+                        plannedTime = internalGoUpwards(
+                                targetFloor, parentElement.getFloor(), newElements, plannedTime);
+                    }
+                    break;
+                default:
+                    throw new IllegalStateException("Internal error: Unexpected value of Durection enum: " + wantedDirection);
+            }
+
+            final long finishTime = plannedTime + 1;
+            plan.insert(startTime, newElements, finishTime - startTime);
+        }
+        log.trace("...ExcursionPlanner.planStop() finished");
+        return !allDone;
+    }
+
+    /**
+     * The moment the elevator is already planned to be at the floor,
+     * or the end of the plan plus the travel to the floor.
+     */
+    @Override
+    public long estimateArrivalEpochNanos(@Nonnull final ElevatorPlan plan,
+                                          @Nonnull final ElevatorState currState,
+                                          final int targetFloor) {
+        final ElevatorState lastAtTarget = plan.lastAt(targetFloor);
+        if (lastAtTarget != null) {
+            return lastAtTarget.getPlannedEpochNanos();
+        }
+        final ElevatorState last = plan.isEmpty() ? currState : plan.peekLast();
+        return Math.max(last.getPlannedEpochNanos(), elevator.getClock().epochNanos())
+                + elevator.getTravelNanos(Math.abs(targetFloor - last.getFloor()));
+    }
+
+    private static boolean isAnyoneLater(@Nonnull final ElevatorPlan plan,
+                                         final long startTime) {
+        final boolean result = plan.isAnyoneLater(startTime);
+        log.debug("isAnyoneLater({}, {}) returns: {}", plan.size(), startTime, result);
+        return result;
+    }
+
+    private long internalGoUpwards(final int fromFloor,
+                                   final int toFloor,
+                                   @Nonnull final List<PlanSegment> newElements,
+                                   long plannedTime) {
+        log.debug("internalGoUpwards({}, {}, {}, {})",
+                fromFloor, toFloor, newElements.size(), plannedTime);
+        if (fromFloor <= toFloor) {
+            // at a constant speed, the floor it starts from takes the time of one more floor, as it always has;
+            // with the kinematics, only the real distance is timed, so staying at the floor takes no time
+            final long travelNanos = elevator.getKinematics() == null
+                                     ? elevator.getTravelNanos(toFloor - fromFloor + 1)
+                                     : elevator.getTravelNanos(toFloor - fromFloor);
+            if (travelNanos > 0) {
+                newElements.add(PlanSegment.travel(fromFloor, toFloor, travelNanos, elevator.getSpeed(), 0.0d));
+                plannedTime += travelNanos;
+            }
+        }
+        return plannedTime;
+    }
+
+    private long internalGoDownwards(final int fromFloor,
+                                     final int toFloor,
+                                     @Nonnull final List<PlanSegment> newElements,
+                                     long plannedTime) {
+        log.debug("internalGoDownwards({}, {}, {}, {})",
+                fromFloor, toFloor, newElements.size(), plannedTime);
+        if (fromFloor - 1 >= toFloor) {
+            final long travelNanos = elevator.getTravelNanos(fromFloor - toFloor);
+            newElements.add(PlanSegment.travel(fromFloor - 1, toFloor, travelNanos,
+                    -elevator.getSpeed(), -elevator.getSpeed()));
+            plannedTime += travelNanos;
+        }
+        return plannedTime;
+    }
+
+    private long internalOpenDoors(final int targetFloor,
+                                   @Nonnull final List<PlanSegment> newElements,
+                                   long plannedTime) {
+        log.debug("internalOpenDoors({}, {}, {})",
+                targetFloor, newElements.size(), plannedTime);
+        final long openingNanos = Constants.DOORS_OPENING_TIME_IN_MILLIS
+                + 1; // we need a difference by at least one nanosecond - for sorting
+        newElements.add(PlanSegment.single(openingNanos, targetFloor, DoorsState.OPENED, 0.0d));
+        final long closingNanos = elevator.getTimeoutInNanos()
+                + 1;
+        newElements.add(PlanSegment.single(closingNanos, targetFloor, DoorsState.CLOSED, 0.0d));
+        return plannedTime + openingNanos + closingNanos;
+    }
+}
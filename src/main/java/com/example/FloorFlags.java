@@ -0,0 +1,45 @@
+package com.example;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A set of floors, one bit per floor, which can be read by any thread without locking.
+ */
+final class FloorFlags {
+
+    private final int minFloor;
+    private final AtomicLongArray words;
+
+    FloorFlags(final int minFloor,
+               final int maxFloor) {
+        this.minFloor = minFloor;
+        words = new AtomicLongArray(((maxFloor - minFloor) >>> 6) + 1);
+    }
+
+    boolean contains(final int floor) {
+        final int index = floor - minFloor;
+        return (words.get(index >>> 6) & (1L << index)) != 0L;
+    }
+
+    void add(final int floor) {
+        final int index = floor - minFloor;
+        final long bit = 1L << index;
+        if ((words.get(index >>> 6) & bit) == 0L) {
+            words.accumulateAndGet(index >>> 6, bit, (word, mask) -> word | mask);
+        }
+    }
+
+    void remove(final int floor) {
+        final int index = floor - minFloor;
+        final long bit = 1L << index;
+        if ((words.get(index >>> 6) & bit) != 0L) {
+            words.accumulateAndGet(index >>> 6, ~bit, (word, mask) -> word & mask);
+        }
+    }
+
+    void clear() {
+        for (int i = 0; i < words.length(); i++) {
+            words.set(i, 0L);
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.example;
+
+import javax.annotation.Nonnull;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A lock-free histogram of non-negative long values (e.g. nanoseconds or queue sizes),
+ * cheap enough to be recorded on every planning or state change.
+ * <p>
+ * The buckets are log-linear: every power of two is split into 8 equal buckets,
+ * so a percentile is reported with an error of at most 12.5%, in a fixed array of counters.
+ * Negative values are counted as zero.
+ */
+public class Histogram {
+
+    private static final int SUB_BUCKET_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKETS = (Long.SIZE - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final AtomicLong total = new AtomicLong();
+    private final AtomicLong min = new AtomicLong(Long.MAX_VALUE);
+    private final AtomicLong max = new AtomicLong(Long.MIN_VALUE);
+
+    public void record(final long value) {
+        final long v = Math.max(value, 0L);
+        counts.incrementAndGet(indexOf(v));
+        total.addAndGet(v);
+        min.accumulateAndGet(v, Math::min);
+        max.accumulateAndGet(v, Math::max);
+    }
+
+    /**
+     * Forgets everything recorded so far. Values recorded meanwhile may be partly lost.
+     */
+    public void reset() {
+        for (int i = 0; i < BUCKETS; i++) {
+            counts.set(i, 0L);
+        }
+        total.set(0L);
+        min.set(Long.MAX_VALUE);
+        max.set(Long.MIN_VALUE);
+    }
+
+    /**
+     * Consistent enough for monitoring: values recorded while the snapshot is taken may be partly included.
+     */
+    @Nonnull
+    public HistogramSnapshot snapshot() {
+        final long[] copy = new long[BUCKETS];
+        long count = 0L;
+        for (int i = 0; i < BUCKETS; i++) {
+            copy[i] = counts.get(i);
+            count += copy[i];
+        }
+        if (count == 0) {
+            return HistogramSnapshot.EMPTY;
+        }
+        final long maxValue = max.get();
+        return new HistogramSnapshot(count, min.get(), maxValue, (double) total.get() / count,
+                percentile(copy, count, 0.50d, maxValue),
+                percentile(copy, count, 0.90d, maxValue),
+                percentile(copy, count, 0.99d, maxValue));
+    }
+
+    /**
+     * @return the upper bound of the bucket with the given percentile, but not more than the maximum
+     */
+    private static long percentile(@Nonnull final long[] counts,
+                                   final long count,
+                                   final double fraction,
+                                   final long maxValue) {
+        final long rank = (long) Math.ceil(fraction * count);
+        long seen = 0L;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return Math.min(i + 1 < BUCKETS ? lowerBoundOf(i + 1) - 1 : Long.MAX_VALUE, maxValue);
+            }
+        }
+        return maxValue;
+    }
+
+    static int indexOf(final long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        final int exponent = Long.SIZE - 1 - Long.numberOfLeadingZeros(value);
+        final int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+    }
+
+    static long lowerBoundOf(final int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        final int exponent = index / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+        final long subBucket = index % SUB_BUCKETS;
+        return (SUB_BUCKETS + subBucket) << (exponent - SUB_BUCKET_BITS);
+    }
+}
@@ -0,0 +1,89 @@
+package com.example;
+
+import javax.annotation.Nonnull;
+import java.beans.ConstructorProperties;
+
+/**
+ * (Immutable) The summary of a {@link Histogram} at some moment.
+ * The percentiles are approximate, see {@link Histogram}.
+ */
+public class HistogramSnapshot {
+
+    static final HistogramSnapshot EMPTY = new HistogramSnapshot(0L, 0L, 0L, 0.0d, 0L, 0L, 0L);
+
+    private final long count;
+    private final long min;
+    private final long max;
+    private final double mean;
+    private final long p50;
+    private final long p90;
+    private final long p99;
+
+    @ConstructorProperties({"count", "min", "max", "mean", "p50", "p90", "p99"}) // for JMX clients
+    public HistogramSnapshot(final long count,
+                             final long min,
+                             final long max,
+                             final double mean,
+                             final long p50,
+                             final long p90,
+                             final long p99) {
+        this.count = count;
+        this.min = min;
+        this.max = max;
+        this.mean = mean;
+        this.p50 = p50;
+        this.p90 = p90;
+        this.p99 = p99;
+    }
+
+    @Override
+    public String toString() {
+        return format(1.0d, "");
+    }
+
+    /**
+     * @param unitSize how many recorded units make one unit of the output, e.g. 1e6 for milliseconds from nanoseconds
+     */
+    @Nonnull
+    public String format(final double unitSize,
+                         @Nonnull final String unit) {
+        if (count == 0) {
+            return "none";
+        }
+        return String.format("count %d, mean %.3f%s, p50 %.3f%s, p90 %.3f%s, p99 %.3f%s, min %.3f%s, max %.3f%s",
+                count, mean / unitSize, unit, p50 / unitSize, unit, p90 / unitSize, unit, p99 / unitSize, unit,
+                min / unitSize, unit, max / unitSize, unit);
+    }
+
+    /* --------
+     * Getters
+     */
+
+    public long getCount() {
+        return count;
+    }
+
+    public long getMin() {
+        return min;
+    }
+
+    public long getMax() {
+        return max;
+    }
+
+    public double getMean() {
+        return mean;
+    }
+
+    public long getP50() {
+        return p50;
+    }
+
+    public long getP90() {
+        return p90;
+    }
+
+    public long getP99() {
+        return p99;
+    }
+}
@@ -0,0 +1,155 @@
+package com.example;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nonnull;
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads the segments written by a {@link StateJournal}, in the order they were written.
+ * <p>
+ * A scan goes through the memory-mapped segments and hands over the fields of every record as primitives,
+ * without creating any objects, so it runs at the speed of the memory;
+ * a replay turns the records back into {@link ElevatorState} transitions for the usual listeners.
+ */
+public class JournalReader {
+    private final static Logger log = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+
+    public interface RecordVisitor {
+        void visit(int carNumber,
+                   long plannedEpochNanos,
+                   int floor,
+                   @Nonnull DoorsState doorsState,
+                   double speed);
+    }
+
+    private final Path directory;
+
+    public JournalReader(@Nonnull final Path directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * Reads every segment up to its first record which has not been completely written,
+     * or which is damaged, e.g. has no such doors state.
+     *
+     * @return the number of records visited
+     */
+    public long scan(@Nonnull final RecordVisitor visitor) throws IOException {
+        return scan(visitor, null);
+    }
+
+    /**
+     * Feeds the journaled transitions to a listener, as if they happened again:
+     * the states keep their planned moments,
+     * and the previous state is the previous record of the same car (null for its first record).
+     * <p>
+     * A directory may keep the journals of several runs, e.g. of a batch simulation and of an interactive session,
+     * which follow different clocks. No previous state passes from one journal to the next:
+     * a new journal always starts a new segment,
+     * and a journal goes on in the next segment only when the current one is full.
+     *
+     * @return the number of transitions replayed
+     */
+    public long replay(@Nonnull final ElevatorStateListener listener) throws IOException {
+        final Map<Integer, ElevatorState> previousStates = new HashMap<>();
+        return scan((carNumber, plannedEpochNanos, floor, doorsState, speed) -> {
+            final ElevatorState state = new ElevatorState(plannedEpochNanos, floor, doorsState, speed);
+            listener.stateChanged(previousStates.put(carNumber, state), state);
+        }, previousStates::clear);
+    }
+
+    /**
+     * @param journalStarted run before the first segment and after every segment which is not full, or null
+     */
+    private long scan(@Nonnull final RecordVisitor visitor,
+                      final Runnable journalStarted) throws IOException {
+        final DoorsState[] doorsStates = DoorsState.values();
+        long count = 0L;
+        boolean journalEnded = true;
+        for (final Path file : StateJournal.segmentsOf(directory)) {
+            if (journalEnded && journalStarted != null) {
+                journalStarted.run();
+            }
+            final MappedByteBuffer segment = map(file);
+            final int records = (segment.capacity() - StateJournal.HEADER_SIZE) / StateJournal.RECORD_SIZE;
+            int i = 0;
+            for (; i < records; i++) {
+                final int position = StateJournal.HEADER_SIZE + i * StateJournal.RECORD_SIZE;
+                if (segment.get(position + StateJournal.COMMIT_OFFSET) != StateJournal.COMMITTED) {
+                    break;
+                }
+                final byte doors = segment.get(position + StateJournal.DOORS_OFFSET);
+                if (doors < 0 || doors >= doorsStates.length) {
+                    log.warn("{} is damaged at the record # {}, the rest of the segment is not read.", file, i);
+                    break;
+                }
+                visitor.visit(segment.getShort(position + StateJournal.CAR_OFFSET),
+                        segment.getLong(position + StateJournal.EPOCH_NANOS_OFFSET),
+                        segment.getInt(position + StateJournal.FLOOR_OFFSET),
+                        doorsStates[doors],
+                        segment.getDouble(position + StateJournal.SPEED_OFFSET));
+                count++;
+            }
+            journalEnded = i < records;
+        }
+        return count;
+    }
+
+    private static MappedByteBuffer map(@Nonnull final Path file) throws IOException {
+        try (final FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            final MappedByteBuffer segment = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            segment.order(StateJournal.BYTE_ORDER);
+            if (segment.capacity() < StateJournal.HEADER_SIZE
+                    || segment.getInt(0) != StateJournal.MAGIC
+                    || segment.getInt(4) != StateJournal.VERSION
+                    || segment.getInt(8) != StateJournal.RECORD_SIZE) {
+                throw new ElevatorException("Sorry, " + file + " is not a journal segment of a known version.");
+            }
+            return segment;
+        }
+    }
+
+    /* ---------------------------------------------------------------
+     * MAIN
+     */
+
+    /**
+     * Prints a summary of a journal directory; with {@code --print}, every record as well.
+     */
+    public static void main(final String[] args) throws IOException {
+        if (args.length < 1) {
+            System.out.println("Usage: java -cp elevator.jar com.example.JournalReader <journal directory> [--print]");
+            System.exit(2);
+        }
+        final Path directory = Paths.get(args[0]);
+        final boolean print = args.length > 1 && "--print".equals(args[1]);
+        final List<Path> segments = StateJournal.segmentsOf(directory);
+        final long startedNanos = System.nanoTime();
+        final long[] opened = {0L};
+        final long count = new JournalReader(directory).scan((carNumber, plannedEpochNanos, floor, doorsState, speed) -> {
+            if (doorsState == DoorsState.OPENED) {
+                opened[0]++;
+            }
+            if (print) {
+                System.out.println(SimulationClock.toInstant(plannedEpochNanos) + " car " + carNumber
+                        + " floor " + floor + ", " + doorsState.getDescription() + ", speed " + speed);
+            }
+        });
+        final long elapsedNanos = System.nanoTime() - startedNanos;
+        System.out.println(String.format("%d records (%d door openings) in %d segments, read in %.3f ms (%.1f M/s)",
+                count, opened[0], segments.size(), elapsedNanos / 1e6,
+                elapsedNanos == 0 ? 0.0d : count * 1e3 / elapsedNanos));
+        log.debug("{} scanned", directory);
+    }
+}
@@ -0,0 +1,107 @@
+package com.example;
+
+import static com.example.Constants.NANOS_PER_SECOND;
+
+/**
+ * (Immutable) How a real elevator car moves: it speeds up from a standstill with a limited acceleration,
+ * which itself grows and falls no faster than the jerk allows, cruises at the maximum speed if the trip is long enough,
+ * and slows down the same way to stop at the floor.
+ * <p>
+ * A trip from a standstill to a standstill depends on its length only, so the elevator computes the times
+ * of the trips over every number of floors once, with {@link #travelNanosTable}, and then just looks them up.
+ */
+public class Kinematics {
+
+    private final double acceleration; // the maximum, in meters per second squared
+    private final double jerk; // the maximum, in meters per second cubed; infinite if the acceleration changes at once
+
+    public Kinematics(final double acceleration,
+                      final double jerk) {
+        if (!(acceleration > 0.0d) || Double.isInfinite(acceleration)) {
+            throw new ElevatorException("Please provide the elevator acceleration greater than zero.");
+        }
+        if (!(jerk > 0.0d)) {
+            throw new ElevatorException("Please provide the elevator jerk greater than zero.");
+        }
+        this.acceleration = acceleration;
+        this.jerk = jerk;
+    }
+
+    @Override
+    public String toString() {
+        return "Kinematics{" +
+                "acceleration=" + acceleration +
+                ", jerk=" + jerk +
+                '}';
+    }
+
+    /**
+     * @param height    of one floor, in meters
+     * @param maxSpeed  in meters per second
+     * @param maxFloors the longest trip, in floors
+     * @return the nanoseconds of a trip over every number of floors from 0 to {@code maxFloors}
+     */
+    public long[] travelNanosTable(final double height,
+                                   final double maxSpeed,
+                                   final int maxFloors) {
+        final long[] result = new long[maxFloors + 1];
+        for (int floors = 1; floors <= maxFloors; floors++) {
+            result[floors] = Math.round(travelSeconds(floors * height, maxSpeed) * NANOS_PER_SECOND);
+        }
+        return result;
+    }
+
+    /**
+     * Speeding up to the maximum speed and slowing down from it cover {@code maxSpeed * rampSeconds(maxSpeed)}
+     * together (the profile is symmetric, so the average speed is half the maximum);
+     * the rest of the distance is covered at the maximum speed.
+     * A shorter trip turns back to slowing down at a lower peak speed.
+     */
+    double travelSeconds(final double distance,
+                         final double maxSpeed) {
+        if (distance <= 0.0d) {
+            return 0.0d;
+        }
+        final double cruiseDistance = distance - maxSpeed * rampSeconds(maxSpeed);
+        if (cruiseDistance >= 0.0d) {
+            return 2.0d * rampSeconds(maxSpeed) + cruiseDistance / maxSpeed;
+        }
+        return 2.0d * rampSeconds(peakSpeed(distance));
+    }
+
+    /**
+     * @return the time to speed up from a standstill to the given speed, the same as to slow down from it
+     */
+    private double rampSeconds(final double speed) {
+        final double jerkSeconds = acceleration / jerk; // to reach the full acceleration
+        if (speed >= acceleration * jerkSeconds) {
+            return speed / acceleration + jerkSeconds;
+        }
+        return 2.0d * Math.sqrt(speed / jerk); // the full acceleration is never reached
+    }
+
+    /**
+     * @return the speed at which the car has to start slowing down to stop after the given distance,
+     * if it can not reach the maximum speed: the distance is {@code peakSpeed * rampSeconds(peakSpeed)}
+     */
+    private double peakSpeed(final double distance) {
+        final double jerkSeconds = acceleration / jerk;
+        if (distance >= 2.0d * acceleration * jerkSeconds * jerkSeconds) {
+            return acceleration * (Math.sqrt(jerkSeconds * jerkSeconds + 4.0d * distance / acceleration)
+                    - jerkSeconds) / 2.0d;
+        }
+        return Math.cbrt(distance * distance * jerk / 4.0d);
+    }
+
+    /* --------
+     * Getters
+     */
+
+    public double getAcceleration() {
+        return acceleration;
+    }
+
+    public double getJerk() {
+        return jerk;
+    }
+}
@@ -0,0 +1,21 @@
+package com.example;
+
+/**
+ * What an {@link AsyncStateListener} does with a new transition when its buffer is full.
+ */
+public enum ListenerOverflowPolicy {
+    /**
+     * The elevator waits until the listener catches up; nothing is lost,
+     * unless the waiting thread is interrupted (e.g. the dispatcher is stopped).
+     */
+    BLOCK,
+    /**
+     * The oldest queued transition is dropped.
+     */
+    DROP_OLDEST,
+    /**
+     * The new state is merged into the latest queued transition,
+     * so the listener sees a jump from its previous state straight to the newest one.
+     */
+    CONFLATE
+}
@@ -0,0 +1,74 @@
+package com.example;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nonnull;
+import java.lang.invoke.MethodHandles;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Pushes synthetic traffic through the elevators at one rate after another, each time from scratch,
+ * to find the rate at which the passengers start waiting too long.
+ * <p>
+ * Every rate is a {@link BatchSimulation} on a virtual clock, so an hour of traffic takes a fraction of a second;
+ * the planning latency is still measured in the real time.
+ */
+public class LoadTest {
+    private final static Logger log = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+
+    private final ElevatorSettings settings;
+    private final TrafficPattern pattern;
+    private final double[] callsPerMinute;
+    private final double durationInSeconds;
+    private final long seed;
+    private final double maxWaitInSeconds;
+
+    /**
+     * @param callsPerMinute   the rates to try, in the order given
+     * @param maxWaitInSeconds the 99th percentile of the wait time which is still acceptable
+     */
+    public LoadTest(@Nonnull final ElevatorSettings settings,
+                    @Nonnull final TrafficPattern pattern,
+                    @Nonnull final double[] callsPerMinute,
+                    final double durationInSeconds,
+                    final long seed,
+                    final double maxWaitInSeconds) {
+        if (callsPerMinute.length == 0) {
+            throw new ElevatorException("Please provide at least one rate of the calls.");
+        }
+        if (maxWaitInSeconds <= 0.0d) {
+            throw new ElevatorException("Please provide the acceptable wait time greater than zero.");
+        }
+        this.settings = settings;
+        this.pattern = pattern;
+        this.callsPerMinute = callsPerMinute.clone();
+        this.durationInSeconds = durationInSeconds;
+        this.seed = seed;
+        this.maxWaitInSeconds = maxWaitInSeconds;
+    }
+
+    @Nonnull
+    public LoadTestReport run() throws InterruptedException {
+        final List<LoadTestReport.Step> steps = new ArrayList<>(callsPerMinute.length);
+        for (final double rate : callsPerMinute) {
+            final List<TraceCall> calls = new TrafficGenerator(pattern, rate, durationInSeconds, seed)
+                    .generate(settings);
+            final ElevatorMetrics metrics = new ElevatorMetrics();
+            final SimulationReport report;
+            try {
+                report = new BatchSimulation(settings, calls, metrics, null).run();
+            } catch (final RuntimeException e) {
+                // the other rates are still worth reporting
+                log.warn(rate + " calls per minute have failed to simulate.", e);
+                steps.add(LoadTestReport.Step.failed(rate, settings, LoadTestReport.Step.failureOf(e)));
+                continue;
+            }
+            log.debug("{} calls per minute: {}", rate, report);
+            steps.add(new LoadTestReport.Step(rate, report,
+                    metrics.getHallCallWaitNanos(), metrics.getPlanningNanos()));
+        }
+        return new LoadTestReport(settings, pattern, durationInSeconds, maxWaitInSeconds, steps);
+    }
+}
@@ -0,0 +1,202 @@
+package com.example;
+
+import javax.annotation.Nonnull;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletionException;
+
+import static com.example.Constants.NANOS_PER_SECOND;
+
+/**
+ * (Immutable) The outcome of a {@link LoadTest}: how the elevators have coped with every rate of the calls.
+ */
+public class LoadTestReport {
+
+    private static final double NANOS_PER_MILLI = 1_000_000.0d;
+
+    /**
+     * (Immutable) The outcome of a single rate: either the simulation report or why the simulation has failed.
+     */
+    public static class Step {
+        private final double callsPerMinute;
+        private final ElevatorSettings settings;
+        private final SimulationReport report; // null if failed
+        private final HistogramSnapshot waitNanos; // null if failed
+        private final HistogramSnapshot planningNanos; // null if failed
+        private final String failure; // null if simulated
+
+        public Step(final double callsPerMinute,
+                    @Nonnull final SimulationReport report,
+                    @Nonnull final HistogramSnapshot waitNanos,
+                    @Nonnull final HistogramSnapshot planningNanos) {
+            this(callsPerMinute, report.getSettings(), report, waitNanos, planningNanos, null);
+        }
+
+        private Step(final double callsPerMinute,
+                     @Nonnull final ElevatorSettings settings,
+                     final SimulationReport report,
+                     final HistogramSnapshot waitNanos,
+                     final HistogramSnapshot planningNanos,
+                     final String failure) {
+            this.callsPerMinute = callsPerMinute;
+            this.settings = settings;
+            this.report = report;
+            this.waitNanos = waitNanos;
+            this.planningNanos = planningNanos;
+            this.failure = failure;
+        }
+
+        /**
+         * @param failure why the elevators could not be simulated at this rate
+         */
+        @Nonnull
+        public static Step failed(final double callsPerMinute,
+                                  @Nonnull final ElevatorSettings settings,
+                                  @Nonnull final String failure) {
+            return new Step(callsPerMinute, settings, null, null, null, failure);
+        }
+
+        /**
+         * @return why the given exception of a simulation has happened, for a failed step
+         */
+        @Nonnull
+        static String failureOf(@Nonnull final RuntimeException e) {
+            final Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+            return String.valueOf(cause);
+        }
+
+        public boolean isFailed() {
+            return failure != null;
+        }
+
+        public double getCallsPerMinute() {
+            return callsPerMinute;
+        }
+
+        @Nonnull
+        public ElevatorSettings getSettings() {
+            return settings;
+        }
+
+        /**
+         * @return null if failed
+         */
+        public SimulationReport getReport() {
+            return report;
+        }
+
+        /**
+         * @return the wait times of the passengers, in the simulated nanoseconds; null if failed
+         */
+        public HistogramSnapshot getWaitNanos() {
+            return waitNanos;
+        }
+
+        /**
+         * @return the planning latencies, in the real nanoseconds; null if failed
+         */
+        public HistogramSnapshot getPlanningNanos() {
+            return planningNanos;
+        }
+
+        /**
+         * @return null if simulated
+         */
+        public String getFailure() {
+            return failure;
+        }
+    }
+
+    private final ElevatorSettings settings;
+    private final TrafficPattern pattern;
+    private final double durationInSeconds;
+    private final double maxWaitInSeconds;
+    private final List<Step> steps;
+
+    public LoadTestReport(@Nonnull final ElevatorSettings settings,
+                          @Nonnull final TrafficPattern pattern,
+                          final double durationInSeconds,
+                          final double maxWaitInSeconds,
+                          @Nonnull final List<Step> steps) {
+        this.settings = settings;
+        this.pattern = pattern;
+        this.durationInSeconds = durationInSeconds;
+        this.maxWaitInSeconds = maxWaitInSeconds;
+        this.steps = Collections.unmodifiableList(new ArrayList<>(steps));
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder result = new StringBuilder();
+        result.append("Load test of ").append(settings).append('\n')
+              .append(String.format("  %s traffic for %.0f s%n", pattern.name().toLowerCase().replace('_', '-'),
+                      durationInSeconds))
+              .append(String.format("  %9s %10s %10s %10s %10s %12s %9s%n", "calls/min", "passengers",
+                      "wait avg", "wait p99", "wait max", "planning p99", "plan max"));
+        for (final Step step : steps) {
+            if (step.isFailed()) {
+                result.append(String.format("  %9.1f saturated, the simulation has failed: %s%n",
+                        step.callsPerMinute, step.failure));
+                continue;
+            }
+            final SimulationReport report = step.report;
+            result.append(String.format("  %9.1f %10d %8.3f s %8.3f s %8.3f s %9.3f ms %9d%n",
+                    step.callsPerMinute, report.getPassengers(),
+                    seconds(report.getAverageWaitNanos()), seconds(step.waitNanos.getP99()),
+                    seconds(report.getMaxWaitNanos()),
+                    step.planningNanos.getP99() / NANOS_PER_MILLI, report.getMaxPlanSize()));
+        }
+        final Step firstTooSlow = getFirstTooSlow();
+        result.append(firstTooSlow == null
+                      ? String.format("  the 99th percentile of the wait stays within %.0f s at every rate",
+                              maxWaitInSeconds)
+                      : String.format("  the 99th percentile of the wait exceeds %.0f s at %.1f calls per minute",
+                              maxWaitInSeconds, firstTooSlow.callsPerMinute));
+        return result.toString();
+    }
+
+    private static double seconds(final long nanos) {
+        return (double) nanos / NANOS_PER_SECOND;
+    }
+
+    /**
+     * @return the first step whose 99th percentile of the wait is over the acceptable one, or which has failed;
+     * null if none
+     */
+    public Step getFirstTooSlow() {
+        for (final Step step : steps) {
+            if (step.isFailed() || seconds(step.waitNanos.getP99()) > maxWaitInSeconds) {
+                return step;
+            }
+        }
+        return null;
+    }
+
+    /* --------
+     * Getters
+     */
+
+    @Nonnull
+    public ElevatorSettings getSettings() {
+        return settings;
+    }
+
+    @Nonnull
+    public TrafficPattern getPattern() {
+        return pattern;
+    }
+
+    public double getDurationInSeconds() {
+        return durationInSeconds;
+    }
+
+    public double getMaxWaitInSeconds() {
+        return maxWaitInSeconds;
+    }
+
+    @Nonnull
+    public List<Step> getSteps() {
+        return steps;
+    }
+}
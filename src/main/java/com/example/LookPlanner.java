@@ -0,0 +1,251 @@
+package com.example;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nonnull;
+import java.lang.invoke.MethodHandles;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The collective LOOK planner: a new stop is made the first time the elevator is planned to pass the floor,
+ * so the elevator serves every requested floor on its way and turns back only after the farthest one.
+ * A floor beyond the plan extends the sweep which goes towards it:
+ * the elevator goes on from the farthest point of that sweep and then comes back to continue the rest of the plan.
+ * <p>
+ * A floor is never planned twice (see {@link ElevatorPlan#hasOpenedDoorsAt}).
+ * The first pass of a floor and the farthest points of the plan are looked up by the floors of the segments,
+ * so finding the place for a stop costs O(log n), however many floors and calls there are,
+ * and so does inserting the stop itself.
+ *
+ * @see PlannerType#LOOK
+ */
+final class LookPlanner implements MovementPlanner {
+    private final static Logger log = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+
+    private static final long NOT_PASSED = Long.MIN_VALUE;
+
+    private final Elevator elevator;
+
+    LookPlanner(@Nonnull final Elevator elevator) {
+        this.elevator = elevator;
+    }
+
+    /**
+     * What the plan looks like from the point of view of a floor: when the elevator passes it first,
+     * or else where the plan could be extended towards it.
+     */
+    private static final class Survey {
+        private final int targetFloor;
+        private final int currentFloor;
+        private long passEpochNanos = NOT_PASSED;
+        private int passFloors; // of the trip which passes the floor, up to the floor
+        private int passTripFloors; // of the whole trip which passes the floor
+        private long standingEpochNanos = Long.MIN_VALUE; // the last segment only standing at the current floor
+        private int top;
+        private long topEpochNanos; // the last planned moment at the highest floor
+        private boolean topIsCurrent = true;
+        private int bottom;
+        private long bottomEpochNanos; // the last planned moment at the lowest floor
+        private boolean bottomIsCurrent = true;
+        private int lastFloor;
+        private long lastEpochNanos;
+
+        private Survey(final int targetFloor,
+                       @Nonnull final ElevatorState currState,
+                       final long now) {
+            this.targetFloor = targetFloor;
+            currentFloor = top = bottom = lastFloor = currState.getFloor();
+            topEpochNanos = bottomEpochNanos = lastEpochNanos = now;
+        }
+
+        private boolean visitPassing(@Nonnull final PlanSegment segment,
+                                     final long firstEpochNanos) {
+            final int index = segment.indexOfFloor(targetFloor);
+            passEpochNanos = firstEpochNanos + segment.offsetNanosAt(index);
+            passFloors = index + 1;
+            passTripFloors = segment.size();
+            return false;
+        }
+
+        /**
+         * Still standing where the elevator is now, e.g. closing the doors, is not a turning point.
+         */
+        private boolean visitStanding(@Nonnull final PlanSegment segment,
+                                      final long firstEpochNanos) {
+            if (segment.isSingle() && segment.getFirstFloor() == currentFloor) {
+                standingEpochNanos = firstEpochNanos;
+                return true;
+            }
+            return false;
+        }
+
+        private boolean visitHighest(@Nonnull final PlanSegment segment,
+                                     final long firstEpochNanos) {
+            final int highest = Math.max(segment.getFirstFloor(), segment.getLastFloor());
+            if (firstEpochNanos > standingEpochNanos && highest >= top) {
+                top = highest;
+                topEpochNanos = firstEpochNanos + segment.offsetNanosAt(segment.indexOfFloor(highest));
+                topIsCurrent = false;
+            }
+            return false;
+        }
+
+        private boolean visitLowest(@Nonnull final PlanSegment segment,
+                                    final long firstEpochNanos) {
+            final int lowest = Math.min(segment.getFirstFloor(), segment.getLastFloor());
+            if (firstEpochNanos > standingEpochNanos && lowest <= bottom) {
+                bottom = lowest;
+                bottomEpochNanos = firstEpochNanos + segment.offsetNanosAt(segment.indexOfFloor(lowest));
+                bottomIsCurrent = false;
+            }
+            return false;
+        }
+
+        private boolean visitLast(@Nonnull final PlanSegment segment,
+                                  final long firstEpochNanos) {
+            lastFloor = segment.getLastFloor();
+            lastEpochNanos = firstEpochNanos + segment.offsetNanosAt(segment.size() - 1);
+            return false;
+        }
+
+        private boolean isPassed() {
+            return passEpochNanos != NOT_PASSED;
+        }
+    }
+
+    /**
+     * Where the way to a floor which is not passed by the plan starts.
+     */
+    private static final class Extension {
+        private final int fromFloor;
+        private final long startEpochNanos;
+        private final boolean turning; // in the middle of the plan, so the elevator has to come back
+
+        private Extension(final int fromFloor,
+                          final long startEpochNanos,
+                          final boolean turning) {
+            this.fromFloor = fromFloor;
+            this.startEpochNanos = startEpochNanos;
+            this.turning = turning;
+        }
+    }
+
+    @Override
+    public boolean planStop(@Nonnull final ElevatorPlan plan,
+                            @Nonnull final ElevatorState currState,
+                            final int targetFloor) {
+        if (plan.hasOpenedDoorsAt(targetFloor)) {
+            log.debug("the floor # {} is already planned", targetFloor);
+            return false;
+        }
+        final long now = elevator.getClock().epochNanos();
+        final List<PlanSegment> newElements = new ArrayList<>();
+        if (isStandingAt(currState, targetFloor)) {
+            log.debug("open the doors at the floor # {} right now", targetFloor);
+            final long plannedTime = openDoors(targetFloor, newElements, now);
+            plan.insert(now, newElements, plannedTime + 1 - now);
+            return true;
+        }
+        final Survey survey = survey(plan, currState, targetFloor, now);
+        if (survey.isPassed()) {
+            log.debug("stop at the floor # {} on the way", targetFloor);
+            // with acceleration, the rest of the trip starts from a standstill again
+            final long stoppingNanos = elevator.getTravelNanos(survey.passFloors)
+                    + elevator.getTravelNanos(survey.passTripFloors - survey.passFloors)
+                    - elevator.getTravelNanos(survey.passTripFloors);
+            final long plannedTime = openDoors(targetFloor, newElements, survey.passEpochNanos) + stoppingNanos;
+            plan.stopAt(survey.passEpochNanos);
+            plan.insert(survey.passEpochNanos, newElements, plannedTime + 1 - survey.passEpochNanos);
+            return true;
+        }
+        final Extension extension = extensionOf(survey, currState);
+        log.debug("extend the plan from the floor # {} to the floor # {}", extension.fromFloor, targetFloor);
+        final long travelNanos = elevator.getTravelNanos(Math.abs(targetFloor - extension.fromFloor));
+        final double speed = targetFloor > extension.fromFloor ? elevator.getSpeed() : -elevator.getSpeed();
+        final int step = Constants.signum(speed);
+        newElements.add(PlanSegment.travel(extension.fromFloor + step, targetFloor, travelNanos, speed, 0.0d));
+        long plannedTime = extension.startEpochNanos + travelNanos;
+        plannedTime = openDoors(targetFloor, newElements, plannedTime);
+        if (extension.turning && plan.isAnyoneLater(extension.startEpochNanos)) {
+            newElements.add(PlanSegment.travel(targetFloor - step, extension.fromFloor, travelNanos, -speed, -speed));
+            plannedTime += travelNanos;
+        }
+        plan.insert(extension.startEpochNanos, newElements, plannedTime + 1 - extension.startEpochNanos);
+        return true;
+    }
+
+    /**
+     * The moment the elevator is planned to pass the floor first,
+     * or the farthest point of the sweep towards the floor plus the travel from there.
+     */
+    @Override
+    public long estimateArrivalEpochNanos(@Nonnull final ElevatorPlan plan,
+                                          @Nonnull final ElevatorState currState,
+                                          final int targetFloor) {
+        final long now = elevator.getClock().epochNanos();
+        if (isStandingAt(currState, targetFloor)) {
+            return now;
+        }
+        final Survey survey = survey(plan, currState, targetFloor, now);
+        if (survey.isPassed()) {
+            return survey.passEpochNanos;
+        }
+        final Extension extension = extensionOf(survey, currState);
+        return extension.startEpochNanos
+                + elevator.getTravelNanos(Math.abs(targetFloor - extension.fromFloor));
+    }
+
+    private static boolean isStandingAt(@Nonnull final ElevatorState currState,
+                                        final int targetFloor) {
+        return currState.getFloor() == targetFloor && Constants.signum(currState.getSpeed()) == 0;
+    }
+
+    @Nonnull
+    private static Survey survey(@Nonnull final ElevatorPlan plan,
+                                 @Nonnull final ElevatorState currState,
+                                 final int targetFloor,
+                                 final long now) {
+        final Survey survey = new Survey(targetFloor, currState, now);
+        if (plan.visitFirstPassing(targetFloor, survey::visitPassing)) {
+            return survey;
+        }
+        plan.forEachSegment(survey::visitStanding); // stops at the first segment which is not standing
+        plan.visitLastAtHighest(survey::visitHighest);
+        plan.visitLastAtLowest(survey::visitLowest);
+        plan.visitLast(survey::visitLast);
+        return survey;
+    }
+
+    /**
+     * The floor is not passed by the plan, so it lies beyond the highest or the lowest planned floor
+     * (or it is the current floor, which the elevator is leaving).
+     * The sweep towards it is extended at its farthest point, unless the elevator is going away from the floor
+     * right now: then the floor has to wait till the end of the plan.
+     */
+    @Nonnull
+    private static Extension extensionOf(@Nonnull final Survey survey,
+                                         @Nonnull final ElevatorState currState) {
+        final int currentFloor = currState.getFloor();
+        if (survey.targetFloor > currentFloor && !survey.topIsCurrent) {
+            return new Extension(survey.top, survey.topEpochNanos, true);
+        }
+        if (survey.targetFloor < currentFloor && !survey.bottomIsCurrent) {
+            return new Extension(survey.bottom, survey.bottomEpochNanos, true);
+        }
+        return new Extension(survey.lastFloor, survey.lastEpochNanos, false);
+    }
+
+    private long openDoors(final int targetFloor,
+                           @Nonnull final List<PlanSegment> newElements,
+                           final long plannedTime) {
+        final long openingNanos = Constants.DOORS_OPENING_TIME_IN_MILLIS
+                + 1; // we need a difference by at least one nanosecond - for sorting
+        newElements.add(PlanSegment.single(openingNanos, targetFloor, DoorsState.OPENED, 0.0d));
+        final long closingNanos = elevator.getTimeoutInNanos()
+                + 1;
+        newElements.add(PlanSegment.single(closingNanos, targetFloor, DoorsState.CLOSED, 0.0d));
+        return plannedTime + openingNanos + closingNanos;
+    }
+}
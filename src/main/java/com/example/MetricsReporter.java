@@ -0,0 +1,49 @@
+package com.example;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nonnull;
+import java.lang.invoke.MethodHandles;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Logs a snapshot of the {@link ElevatorMetrics} periodically, from a daemon thread.
+ * Only created when the metrics are asked for, so there is no thread otherwise.
+ */
+public class MetricsReporter implements AutoCloseable {
+    private final static Logger log = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+
+    private final ElevatorMetrics metrics;
+    private final ScheduledExecutorService scheduler;
+
+    public MetricsReporter(@Nonnull final ElevatorMetrics metrics,
+                           final double periodInSeconds) {
+        if (periodInSeconds <= 0.0d) {
+            throw new ElevatorException("Please provide the metrics period greater than zero.");
+        }
+        this.metrics = metrics;
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            final Thread thread = new Thread(runnable, "metrics-reporter");
+            thread.setDaemon(true);
+            return thread;
+        });
+        final long periodInNanos = (long) (periodInSeconds * Constants.NANOS_PER_SECOND);
+        scheduler.scheduleAtFixedRate(this::report, periodInNanos, periodInNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void report() {
+        log.info("{}", metrics);
+    }
+
+    /**
+     * Stops the periodic reports and logs the final one.
+     */
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+        report();
+    }
+}
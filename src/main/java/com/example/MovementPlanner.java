@@ -0,0 +1,30 @@
+package com.example;
+
+import javax.annotation.Nonnull;
+
+/**
+ * The strategy an {@link Elevator} uses to fit one more stop into its {@link ElevatorPlan}.
+ * <p>
+ * An instance belongs to a single elevator and is only called under the lock of that elevator.
+ *
+ * @see PlannerType
+ */
+interface MovementPlanner {
+
+    /**
+     * Plans a stop at the given floor, unless it is planned already.
+     *
+     * @return true if the plan has changed
+     */
+    boolean planStop(@Nonnull ElevatorPlan plan,
+                     @Nonnull ElevatorState currState,
+                     int targetFloor);
+
+    /**
+     * Estimates when the elevator would open the doors at the given floor if it were called there now.
+     * Nothing is planned by this method.
+     */
+    long estimateArrivalEpochNanos(@Nonnull ElevatorPlan plan,
+                                   @Nonnull ElevatorState currState,
+                                   int targetFloor);
+}
@@ -0,0 +1,353 @@
+package com.example;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nonnull;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.lang.invoke.MethodHandles;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Function;
+
+import static com.example.Constants.NANOS_PER_SECOND;
+
+/**
+ * Runs the same synthetic traffic through every configuration of a grid of building parameters,
+ * to choose the speed, the floor height, the timeout and the number of floors before a deployment.
+ * <p>
+ * Every configuration is an independent {@link BatchSimulation} on its own virtual clock, planned on the thread
+ * which runs it, so the configurations are simply split among the threads of a {@link ForkJoinPool}:
+ * the only shared data are the generated calls, which are read-only, and every result has its own slot.
+ * A configuration which fails to simulate gets a failed result of its own, the rest of the grid goes on.
+ */
+public class ParameterSweep {
+    private final static Logger log = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+
+    private static final String USAGE = "Usage: java -cp elevator.jar com.example.ParameterSweep"
+            + " --floors=<range> --height=<range> --speed=<range> --timeout=<range>"
+            + " [--min-floor=1] [--cars=1] [--planner=excursions] [--acceleration=<off>] [--jerk=<unlimited>]"
+            + " [--traffic=background] [--rate=60]"
+            + " [--duration=3600] [--seed=1] [--threads=<all the cores>] [--output=<csv file>]\n"
+            + "  where a range is a value, several values separated by commas, or <from>..<to>[/<step>]"
+            + ", e.g. --speed=1..4/0.5";
+
+    private final List<ElevatorSettings> configurations;
+    private final TrafficPattern pattern;
+    private final double callsPerMinute;
+    private final double durationInSeconds;
+    private final long seed;
+
+    public ParameterSweep(@Nonnull final List<ElevatorSettings> configurations,
+                          @Nonnull final TrafficPattern pattern,
+                          final double callsPerMinute,
+                          final double durationInSeconds,
+                          final long seed) {
+        if (configurations.isEmpty()) {
+            throw new ElevatorException("Please provide at least one configuration to sweep.");
+        }
+        configurations.forEach(ElevatorSettings::validate);
+        this.configurations = Collections.unmodifiableList(new ArrayList<>(configurations));
+        this.pattern = pattern;
+        this.callsPerMinute = callsPerMinute;
+        this.durationInSeconds = durationInSeconds;
+        this.seed = seed;
+    }
+
+    /**
+     * @param kinematics of all the configurations; null if the cars start and stop at once
+     * @return every combination of the given values, the floors changing the slowest and the timeouts the fastest
+     */
+    @Nonnull
+    public static List<ElevatorSettings> grid(final int minFloor,
+                                              @Nonnull final int[] floors,
+                                              @Nonnull final double[] heights,
+                                              @Nonnull final double[] speeds,
+                                              @Nonnull final double[] timeouts,
+                                              final int cars,
+                                              @Nonnull final PlannerType planner,
+                                              final Kinematics kinematics) {
+        final List<ElevatorSettings> result =
+                new ArrayList<>(floors.length * heights.length * speeds.length * timeouts.length);
+        for (final int maxFloor : floors) {
+            for (final double height : heights) {
+                for (final double speed : speeds) {
+                    for (final double timeout : timeouts) {
+                        result.add(new ElevatorSettings(minFloor, maxFloor, height, speed, timeout, cars, planner,
+                                kinematics));
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Every configuration of the same floors gets the same passengers; they are generated before the simulations.
+     *
+     * @return the results in the order of the configurations
+     */
+    @Nonnull
+    public List<LoadTestReport.Step> run(@Nonnull final ForkJoinPool pool) {
+        final Map<Long, List<TraceCall>> callsByFloors = new HashMap<>();
+        final List<List<TraceCall>> calls = new ArrayList<>(configurations.size());
+        final TrafficGenerator generator = new TrafficGenerator(pattern, callsPerMinute, durationInSeconds, seed);
+        for (final ElevatorSettings settings : configurations) {
+            final long floors = ((long) settings.getMinFloor() << Integer.SIZE) | (settings.getFloors() & 0xFFFFFFFFL);
+            calls.add(callsByFloors.computeIfAbsent(floors, ignored -> generator.generate(settings)));
+        }
+        final LoadTestReport.Step[] results = new LoadTestReport.Step[configurations.size()];
+        final long startedNanos = System.nanoTime();
+        pool.invoke(new Simulations(calls, results, 0, results.length));
+        log.debug("{} configurations simulated in {} ms", results.length, (System.nanoTime() - startedNanos) / 1_000_000);
+        return Arrays.asList(results);
+    }
+
+    /**
+     * Simulates the configurations from (inclusive) to (exclusive), splitting them in halves down to a single one.
+     */
+    private final class Simulations extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final List<List<TraceCall>> calls;
+        private final LoadTestReport.Step[] results;
+        private final int from;
+        private final int to;
+
+        private Simulations(@Nonnull final List<List<TraceCall>> calls,
+                            @Nonnull final LoadTestReport.Step[] results,
+                            final int from,
+                            final int to) {
+            this.calls = calls;
+            this.results = results;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > 1) {
+                final int middle = (from + to) >>> 1;
+                invokeAll(new Simulations(calls, results, from, middle), new Simulations(calls, results, middle, to));
+                return;
+            }
+            final ElevatorSettings settings = configurations.get(from);
+            final ElevatorMetrics metrics = new ElevatorMetrics();
+            try {
+                final SimulationReport report =
+                        new BatchSimulation(settings, calls.get(from), metrics, null, true).run();
+                results[from] = new LoadTestReport.Step(callsPerMinute, report,
+                        metrics.getHallCallWaitNanos(), metrics.getPlanningNanos());
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new ElevatorException("Sorry, the sweep has been interrupted.");
+            } catch (final RuntimeException e) {
+                log.warn(settings + " has failed to simulate.", e);
+                results[from] = LoadTestReport.Step.failed(callsPerMinute, settings, LoadTestReport.Step.failureOf(e));
+            }
+        }
+    }
+
+    /**
+     * Writes a header and one comma-separated row per configuration, the times in seconds;
+     * a failed configuration has only its parameters and the failure.
+     */
+    public static void writeTable(@Nonnull final List<LoadTestReport.Step> results,
+                                  @Nonnull final Appendable out) throws IOException {
+        out.append("min floor,floors,height,speed,timeout,cars,planner,passengers,delivered,"
+                + "wait avg,wait p99,wait max,ride avg,ride max,stops,plan max,plan avg,simulated,failure\n");
+        for (final LoadTestReport.Step result : results) {
+            final ElevatorSettings settings = result.getSettings();
+            out.append(String.format(Locale.ROOT, "%d,%d,%s,%s,%s,%d,%s,",
+                    settings.getMinFloor(), settings.getFloors(), settings.getHeight(), settings.getSpeed(),
+                    settings.getTimeoutInSeconds(), settings.getCars(), settings.getPlanner().name().toLowerCase()));
+            if (result.isFailed()) {
+                // the failure is quoted, it may have commas of its own
+                out.append(",,,,,,,,,,,\"").append(result.getFailure().replace("\"", "\"\"")).append("\"\n");
+                continue;
+            }
+            final SimulationReport report = result.getReport();
+            out.append(String.format(Locale.ROOT, "%d,%d,%.3f,%.3f,%.3f,%.3f,%.3f,%d,%d,%.1f,%.3f,%n",
+                    report.getPassengers(), report.getDelivered(),
+                    seconds(report.getAverageWaitNanos()), seconds(result.getWaitNanos().getP99()),
+                    seconds(report.getMaxWaitNanos()), seconds(report.getAverageRideNanos()),
+                    seconds(report.getMaxRideNanos()), report.getStops(), report.getMaxPlanSize(),
+                    report.getAveragePlanSize(), seconds(report.getSimulatedNanos())));
+        }
+    }
+
+    private static double seconds(final long nanos) {
+        return (double) nanos / NANOS_PER_SECOND;
+    }
+
+    /**
+     * A configuration which leaves someone waiting till the end is no good, however short the waits are.
+     *
+     * @return the result with the shortest 99th percentile of the wait among those which deliver the most
+     * passengers, or null if every configuration has failed
+     */
+    static LoadTestReport.Step best(@Nonnull final List<LoadTestReport.Step> results) {
+        return results.stream()
+                      .filter(result -> !result.isFailed())
+                      .min(Comparator.comparingInt((LoadTestReport.Step result) ->
+                              result.getReport().getPassengers() - result.getReport().getDelivered())
+                                     .thenComparingLong(result -> result.getWaitNanos().getP99()))
+                      .orElse(null);
+    }
+
+    /**
+     * Parses a single value, several values separated by commas, or {@code <from>..<to>[/<step>]}
+     * (both ends included, the step is 1 by default).
+     */
+    @Nonnull
+    static double[] parseRange(@Nonnull final String range) {
+        final int dots = range.indexOf("..");
+        if (dots < 0) {
+            final String[] values = range.split(",");
+            final double[] result = new double[values.length];
+            for (int i = 0; i < values.length; i++) {
+                result[i] = parseNumber(range, values[i]);
+            }
+            return result;
+        }
+        final int slash = range.indexOf('/', dots);
+        final double from = parseNumber(range, range.substring(0, dots));
+        final double to = parseNumber(range, range.substring(dots + 2, slash < 0 ? range.length() : slash));
+        final double step = slash < 0 ? 1.0d : parseNumber(range, range.substring(slash + 1));
+        if (step <= 0.0d || to < from) {
+            throw new ElevatorException("Please provide a range from the lower value to the higher one"
+                    + " with a step greater than zero: " + range);
+        }
+        // the small tolerance keeps the upper end despite the rounding of the steps
+        final int count = (int) Math.floor((to - from) / step + 1e-9) + 1;
+        final double[] result = new double[count];
+        for (int i = 0; i < count; i++) {
+            result[i] = from + i * step;
+        }
+        return result;
+    }
+
+    private static double parseNumber(@Nonnull final String range,
+                                      @Nonnull final String value) {
+        try {
+            return Double.parseDouble(value.trim());
+        } catch (final NumberFormatException e) {
+            throw new ElevatorException("Please provide numbers in the range: " + range);
+        }
+    }
+
+    /**
+     * @param defaultValue of a parameter which is not given; null if it has to be given
+     */
+    @Nonnull
+    private static <T> T parse(@Nonnull final Map<String, String> params,
+                               @Nonnull final String name,
+                               final String defaultValue,
+                               @Nonnull final Function<String, T> parser) {
+        final String value = params.getOrDefault(name, defaultValue);
+        if (value == null) {
+            throw new ElevatorException("Please provide --" + name + ".");
+        }
+        try {
+            return parser.apply(value.trim());
+        } catch (final NumberFormatException e) {
+            throw new ElevatorException("Please provide a number as --" + name + ": " + value);
+        }
+    }
+
+    @Nonnull
+    private static int[] parseFloorRange(@Nonnull final String range) {
+        final double[] values = parseRange(range);
+        final int[] result = new int[values.length];
+        for (int i = 0; i < values.length; i++) {
+            result[i] = (int) values[i];
+            if (result[i] != values[i]) {
+                throw new ElevatorException("Please provide whole numbers of floors: " + range);
+            }
+        }
+        return result;
+    }
+
+    /* --------
+     * MAIN
+     */
+
+    /**
+     * Sweeps the grid given on the command line, writes the table to the output file (or the console)
+     * and prints the configuration with the shortest 99th percentile of the wait
+     * among those which deliver the most passengers.
+     */
+    public static void main(final String[] args) throws IOException {
+        final Map<String, String> params = new HashMap<>();
+        for (final String arg : args) {
+            final int equals = arg.indexOf('=');
+            if (!arg.startsWith("--") || equals < 0) {
+                System.out.println(USAGE);
+                System.exit(2);
+            }
+            params.put(arg.substring(2, equals), arg.substring(equals + 1));
+        }
+        if (!params.keySet().containsAll(Arrays.asList("floors", "height", "speed", "timeout"))) {
+            System.out.println(USAGE);
+            System.exit(2);
+        }
+        try {
+            final List<ElevatorSettings> configurations = grid(
+                    parse(params, "min-floor", "1", Integer::parseInt),
+                    parseFloorRange(params.get("floors")),
+                    parseRange(params.get("height")),
+                    parseRange(params.get("speed")),
+                    parseRange(params.get("timeout")),
+                    parse(params, "cars", "1", Integer::parseUnsignedInt),
+                    PlannerType.of(params.getOrDefault("planner", "excursions")),
+                    params.containsKey("acceleration")
+                    ? new Kinematics(parse(params, "acceleration", null, Double::parseDouble),
+                            parse(params, "jerk", "Infinity", Double::parseDouble))
+                    : null);
+            final ParameterSweep sweep = new ParameterSweep(configurations,
+                    TrafficPattern.of(params.getOrDefault("traffic", "background")),
+                    parse(params, "rate", "60", Double::parseDouble),
+                    parse(params, "duration", "3600", Double::parseDouble),
+                    parse(params, "seed", "1", Long::parseLong));
+            final int threads = parse(params, "threads", String.valueOf(Runtime.getRuntime().availableProcessors()),
+                    Integer::parseUnsignedInt);
+            if (threads < 1) {
+                throw new ElevatorException("Please provide at least one thread.");
+            }
+            final ForkJoinPool pool = new ForkJoinPool(threads);
+            final long startedNanos = System.nanoTime();
+            final List<LoadTestReport.Step> results = sweep.run(pool);
+            final long elapsedNanos = System.nanoTime() - startedNanos;
+            final String output = params.get("output");
+            if (output == null) {
+                writeTable(results, System.out);
+            } else {
+                try (final Writer writer = Files.newBufferedWriter(Paths.get(output), StandardCharsets.UTF_8)) {
+                    writeTable(results, writer);
+                }
+            }
+            final LoadTestReport.Step best = best(results);
+            final long failed = results.stream().filter(LoadTestReport.Step::isFailed).count();
+            final PrintStream console = output == null ? System.err : System.out;
+            console.println(String.format("%d configurations simulated in %.3f s on %d threads, %d of them failed",
+                    results.size(), seconds(elapsedNanos), pool.getParallelism(), failed));
+            if (best == null) {
+                console.println("no configuration has been simulated to the end");
+            } else {
+                console.println(String.format("the shortest 99th percentile of the wait, %.3f s, %d of %d delivered: %s",
+                        seconds(best.getWaitNanos().getP99()), best.getReport().getDelivered(),
+                        best.getReport().getPassengers(), best.getSettings()));
+            }
+        } catch (final ElevatorException e) {
+            System.out.println(e.getMessage());
+            System.out.println(USAGE);
+            System.exit(2);
+        }
+    }
+}
@@ -42,7 +42,7 @@ public class PassengerState {
 
     public PassengerState goIntoElevator(final Elevator elevator) {
         log.debug("goIntoElevator()");
-        final ElevatorState elevatorState = elevator.pollCurrentState();
+        final ElevatorState elevatorState = elevator.getCurrentState();
         if (this.getElevator().isPresent()) {
             throw new RuntimeException("Internal error: The passenger is already inside an elevator");
         }
@@ -65,7 +65,7 @@ public class PassengerState {
     }
 
     public PassengerState memorizeTargetFloor(final int targetFloor) {
-        log.debug("memorizeTargetFloor(" + targetFloor + ")");
+        log.debug("memorizeTargetFloor({})", targetFloor);
         if (this.elevator == null) {
             throw new IllegalStateException(
                     "Internal error: Selecting a target floor outside of an elevator is not supported");
@@ -78,7 +78,7 @@ public class PassengerState {
     }
 
     public PassengerState goOutToFloor(final int floor) {
-        log.debug("goOutToFloor(" + floor + ")");
+        log.debug("goOutToFloor({})", floor);
         return new PassengerState(null, floor, null, PassengerStatus.OUTSIDE_ELEVATOR_NOT_WAITING);
     }
 
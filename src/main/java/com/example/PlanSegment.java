@@ -0,0 +1,232 @@
+package com.example;
+
+import javax.annotation.Nonnull;
+
+/**
+ * (Immutable) A compact run of planned elevator states.
+ * <p>
+ * The elevator passes the floors from {@code firstFloor} to {@code lastFloor} one by one, {@code nanosPerFloor} apart,
+ * the first one {@code leadNanos} after the previous planned state. The individual {@link ElevatorState}s
+ * are only created when the segment is consumed.
+ * <p>
+ * A segment knows nothing about the absolute time: its moment is kept by the {@link PlanTimeline},
+ * so the segment survives any postponement as is.
+ * <p>
+ * A single state (e.g. opening or closing the doors) is a segment of one floor.
+ */
+final class PlanSegment {
+
+    private final int firstFloor;
+    private final int lastFloor;
+    private final long leadNanos;
+    private final long nanosPerFloor;
+    private final DoorsState doorsState;
+    private final double speed; // while passing the floors
+    private final double lastSpeed; // at the last floor of the segment
+
+    private PlanSegment(final int firstFloor,
+                        final int lastFloor,
+                        final long leadNanos,
+                        final long nanosPerFloor,
+                        final DoorsState doorsState,
+                        final double speed,
+                        final double lastSpeed) {
+        this.firstFloor = firstFloor;
+        this.lastFloor = lastFloor;
+        this.leadNanos = leadNanos;
+        this.nanosPerFloor = nanosPerFloor;
+        this.doorsState = doorsState;
+        this.speed = speed;
+        this.lastSpeed = lastSpeed;
+    }
+
+    /**
+     * A trip which reaches the last floor {@code travelNanos} after the previous state.
+     * The floors are passed at the average pace of the trip; the remainder of the division
+     * is added to the way to the first floor, so the last one is reached exactly in time.
+     */
+    static PlanSegment travel(final int firstFloor,
+                              final int lastFloor,
+                              final long travelNanos,
+                              final double speed,
+                              final double lastSpeed) {
+        final int floors = Math.abs(lastFloor - firstFloor) + 1;
+        final long nanosPerFloor = travelNanos / floors;
+        return new PlanSegment(firstFloor, lastFloor, travelNanos - (floors - 1) * nanosPerFloor, nanosPerFloor,
+                DoorsState.CLOSED, speed, lastSpeed);
+    }
+
+    static PlanSegment single(final long leadNanos,
+                              final int floor,
+                              final DoorsState doorsState,
+                              final double speed) {
+        return new PlanSegment(floor, floor, leadNanos, 0L, doorsState, speed, speed);
+    }
+
+    static PlanSegment of(@Nonnull final ElevatorState state) {
+        return single(0L, state.getFloor(), state.getDoorsState(), state.getSpeed());
+    }
+
+    /**
+     * Re-creates a segment from its fields, e.g. as they were read from a {@link PlanSnapshot}.
+     */
+    static PlanSegment of(final int firstFloor,
+                          final int lastFloor,
+                          final long leadNanos,
+                          final long nanosPerFloor,
+                          @Nonnull final DoorsState doorsState,
+                          final double speed,
+                          final double lastSpeed) {
+        return new PlanSegment(firstFloor, lastFloor, leadNanos, nanosPerFloor, doorsState, speed, lastSpeed);
+    }
+
+    @Override
+    public String toString() {
+        return "PlanSegment{" +
+                "floors=" + firstFloor + ".." + lastFloor +
+                ", leadNanos=" + leadNanos +
+                ", nanosPerFloor=" + nanosPerFloor +
+                ", doorsState=" + doorsState +
+                ", speed=" + speed +
+                ", lastSpeed=" + lastSpeed +
+                '}';
+    }
+
+    /**
+     * @return the number of states in the segment
+     */
+    public int size() {
+        return Math.abs(lastFloor - firstFloor) + 1;
+    }
+
+    public boolean isSingle() {
+        return firstFloor == lastFloor;
+    }
+
+    /**
+     * @return the direction of travel, or NEUTRAL for a single standing state
+     */
+    public Direction getDirection() {
+        return Direction.of(isSingle() ? lastSpeed : speed);
+    }
+
+    public int floorAt(final int index) {
+        return lastFloor >= firstFloor
+               ? firstFloor + index
+               : firstFloor - index;
+    }
+
+    /**
+     * @return nanoseconds between the first state of the segment and the state with the given index
+     */
+    public long offsetNanosAt(final int index) {
+        return index * nanosPerFloor;
+    }
+
+    /**
+     * @return nanoseconds between the first and the last state of the segment
+     */
+    public long getDurationNanos() {
+        return offsetNanosAt(size() - 1);
+    }
+
+    @Nonnull
+    public ElevatorState stateAt(final long firstEpochNanos,
+                                 final int index) {
+        return new ElevatorState(firstEpochNanos + offsetNanosAt(index), floorAt(index), doorsState,
+                index == size() - 1 ? lastSpeed : speed);
+    }
+
+    /**
+     * @return the index of the state at the given floor, or -1 if the segment does not pass it
+     */
+    public int indexOfFloor(final int floor) {
+        final int index = lastFloor >= firstFloor
+                          ? floor - firstFloor
+                          : firstFloor - floor;
+        return index >= 0 && index < size()
+               ? index
+               : -1;
+    }
+
+    /**
+     * @return how many states of the segment are planned within the given nanoseconds after its first state
+     */
+    public int countWithin(final long offsetNanos) {
+        if (offsetNanos < 0) {
+            return 0;
+        }
+        if (nanosPerFloor == 0) {
+            return size();
+        }
+        return (int) Math.min(size(), offsetNanos / nanosPerFloor + 1);
+    }
+
+    /**
+     * @return the first {@code count} states; the elevator is still moving at the last of them
+     * unless it is the end of the whole segment
+     */
+    @Nonnull
+    public PlanSegment head(final int count) {
+        if (count == size()) {
+            return this;
+        }
+        return new PlanSegment(firstFloor, floorAt(count - 1), leadNanos, nanosPerFloor,
+                doorsState, speed, speed);
+    }
+
+    /**
+     * @return the same states, but the elevator stands still at the last of them
+     */
+    @Nonnull
+    public PlanSegment stoppingAtEnd() {
+        if (Constants.signum(lastSpeed) == 0) {
+            return this;
+        }
+        return new PlanSegment(firstFloor, lastFloor, leadNanos, nanosPerFloor, doorsState, speed, 0.0d);
+    }
+
+    /**
+     * @return the states starting from the given index
+     */
+    @Nonnull
+    public PlanSegment tail(final int fromIndex) {
+        if (fromIndex == 0) {
+            return this;
+        }
+        return new PlanSegment(floorAt(fromIndex), lastFloor, nanosPerFloor, nanosPerFloor,
+                doorsState, speed, lastSpeed);
+    }
+
+    /* --------
+     * Getters
+     */
+
+    public int getFirstFloor() {
+        return firstFloor;
+    }
+
+    public int getLastFloor() {
+        return lastFloor;
+    }
+
+    public long getLeadNanos() {
+        return leadNanos;
+    }
+
+    public long getNanosPerFloor() {
+        return nanosPerFloor;
+    }
+
+    public DoorsState getDoorsState() {
+        return doorsState;
+    }
+
+    public double getSpeed() {
+        return speed;
+    }
+
+    public double getLastSpeed() {
+        return lastSpeed;
+    }
+}
@@ -0,0 +1,260 @@
+package com.example;
+
+import javax.annotation.Nonnull;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * (Immutable) The current state and the pending plan of an {@link Elevator}, to survive a restart of the process.
+ * <p>
+ * The planned moments are kept relative to the moment the snapshot was taken,
+ * so a restored elevator carries on from where it was, on whatever clock it has now.
+ * <p>
+ * The file layout, little-endian: magic, version, the number of cars, then every car
+ * (the floors, the timings, the current state and the segments of the plan with their offsets),
+ * then the CRC32 of everything before it. A file is written next to the target and moved over it,
+ * so a crash while writing leaves the previous snapshot intact.
+ *
+ * @see Elevator#takeSnapshot()
+ * @see Elevator#restore(PlanSnapshot)
+ */
+public class PlanSnapshot {
+
+    private static final int MAGIC = 0x53564C45; // "ELVS" in little-endian
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 12;
+    private static final int CAR_SIZE = 41;
+    private static final int SEGMENT_SIZE = 49;
+    private static final int CHECKSUM_SIZE = 8;
+    private static final ByteOrder BYTE_ORDER = ByteOrder.LITTLE_ENDIAN;
+
+    private final int minFloor;
+    private final int maxFloor;
+    private final long nanosPerFloor;
+    private final long timeoutInNanos;
+    private final int floor;
+    private final DoorsState doorsState;
+    private final double speed;
+    private final List<PlanSegment> segments;
+    private final long[] offsetsNanos; // of the first state of every segment from the moment of the snapshot
+
+    PlanSnapshot(final int minFloor,
+                 final int maxFloor,
+                 final long nanosPerFloor,
+                 final long timeoutInNanos,
+                 @Nonnull final ElevatorState currentState,
+                 @Nonnull final List<PlanSegment> segments,
+                 @Nonnull final long[] offsetsNanos) {
+        this(minFloor, maxFloor, nanosPerFloor, timeoutInNanos,
+                currentState.getFloor(), currentState.getDoorsState(), currentState.getSpeed(),
+                segments, offsetsNanos);
+    }
+
+    private PlanSnapshot(final int minFloor,
+                         final int maxFloor,
+                         final long nanosPerFloor,
+                         final long timeoutInNanos,
+                         final int floor,
+                         @Nonnull final DoorsState doorsState,
+                         final double speed,
+                         @Nonnull final List<PlanSegment> segments,
+                         @Nonnull final long[] offsetsNanos) {
+        if (segments.size() != offsetsNanos.length) {
+            throw new IllegalStateException("Internal error: " + segments.size() + " segments with "
+                    + offsetsNanos.length + " offsets");
+        }
+        this.minFloor = minFloor;
+        this.maxFloor = maxFloor;
+        this.nanosPerFloor = nanosPerFloor;
+        this.timeoutInNanos = timeoutInNanos;
+        this.floor = floor;
+        this.doorsState = doorsState;
+        this.speed = speed;
+        this.segments = Collections.unmodifiableList(new ArrayList<>(segments));
+        this.offsetsNanos = offsetsNanos.clone();
+    }
+
+    @Override
+    public String toString() {
+        return "PlanSnapshot{" +
+                "floors=" + minFloor + ".." + maxFloor +
+                ", floor=" + floor +
+                ", doorsState=" + doorsState +
+                ", speed=" + speed +
+                ", segments=" + segments.size() +
+                '}';
+    }
+
+    /**
+     * Writes the snapshots of all the cars into a single file, replacing it atomically.
+     */
+    public static void write(@Nonnull final Path file,
+                             @Nonnull final List<PlanSnapshot> snapshots) throws IOException {
+        int size = HEADER_SIZE + CHECKSUM_SIZE;
+        for (final PlanSnapshot snapshot : snapshots) {
+            size += CAR_SIZE + snapshot.segments.size() * SEGMENT_SIZE;
+        }
+        final ByteBuffer buffer = ByteBuffer.allocate(size).order(BYTE_ORDER);
+        buffer.putInt(MAGIC);
+        buffer.putInt(VERSION);
+        buffer.putInt(snapshots.size());
+        for (final PlanSnapshot snapshot : snapshots) {
+            snapshot.writeTo(buffer);
+        }
+        final CRC32 checksum = new CRC32();
+        checksum.update(buffer.array(), 0, buffer.position());
+        buffer.putLong(checksum.getValue());
+
+        final Path directory = file.toAbsolutePath().getParent();
+        if (directory != null) {
+            Files.createDirectories(directory);
+        }
+        final Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        Files.write(temporary, buffer.array());
+        Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * @return the snapshots of all the cars, in the order they were written
+     */
+    @Nonnull
+    public static List<PlanSnapshot> read(@Nonnull final Path file) throws IOException {
+        final byte[] bytes = Files.readAllBytes(file);
+        if (bytes.length < HEADER_SIZE + CHECKSUM_SIZE) {
+            throw new ElevatorException("The snapshot file is too short: " + file);
+        }
+        final ByteBuffer buffer = ByteBuffer.wrap(bytes).order(BYTE_ORDER);
+        final CRC32 checksum = new CRC32();
+        checksum.update(bytes, 0, bytes.length - CHECKSUM_SIZE);
+        if (buffer.getLong(bytes.length - CHECKSUM_SIZE) != checksum.getValue()) {
+            throw new ElevatorException("The snapshot file is damaged: " + file);
+        }
+        if (buffer.getInt() != MAGIC) {
+            throw new ElevatorException("Not an elevator snapshot: " + file);
+        }
+        final int version = buffer.getInt();
+        if (version != VERSION) {
+            throw new ElevatorException("Unsupported version " + version + " of the snapshot file: " + file);
+        }
+        final int cars = buffer.getInt();
+        final List<PlanSnapshot> result = new ArrayList<>(cars);
+        for (int i = 0; i < cars; i++) {
+            result.add(readFrom(buffer));
+        }
+        if (buffer.remaining() != CHECKSUM_SIZE) {
+            throw new ElevatorException("The snapshot file is damaged: " + file);
+        }
+        return result;
+    }
+
+    private void writeTo(@Nonnull final ByteBuffer buffer) {
+        buffer.putInt(minFloor);
+        buffer.putInt(maxFloor);
+        buffer.putLong(nanosPerFloor);
+        buffer.putLong(timeoutInNanos);
+        buffer.putInt(floor);
+        buffer.put((byte) doorsState.ordinal());
+        buffer.putDouble(speed);
+        buffer.putInt(segments.size());
+        for (int i = 0; i < segments.size(); i++) {
+            final PlanSegment segment = segments.get(i);
+            buffer.putLong(offsetsNanos[i]);
+            buffer.putInt(segment.getFirstFloor());
+            buffer.putInt(segment.getLastFloor());
+            buffer.putLong(segment.getLeadNanos());
+            buffer.putLong(segment.getNanosPerFloor());
+            buffer.put((byte) segment.getDoorsState().ordinal());
+            buffer.putDouble(segment.getSpeed());
+            buffer.putDouble(segment.getLastSpeed());
+        }
+    }
+
+    @Nonnull
+    private static PlanSnapshot readFrom(@Nonnull final ByteBuffer buffer) {
+        final DoorsState[] doorsStates = DoorsState.values();
+        final int minFloor = buffer.getInt();
+        final int maxFloor = buffer.getInt();
+        final long nanosPerFloor = buffer.getLong();
+        final long timeoutInNanos = buffer.getLong();
+        final int floor = buffer.getInt();
+        final DoorsState doorsState = doorsStates[buffer.get()];
+        final double speed = buffer.getDouble();
+        final int segmentCount = buffer.getInt();
+        final List<PlanSegment> segments = new ArrayList<>(segmentCount);
+        final long[] offsetsNanos = new long[segmentCount];
+        for (int i = 0; i < segmentCount; i++) {
+            offsetsNanos[i] = buffer.getLong();
+            final int firstFloor = buffer.getInt();
+            final int lastFloor = buffer.getInt();
+            final long leadNanos = buffer.getLong();
+            final long segmentNanosPerFloor = buffer.getLong();
+            final DoorsState segmentDoorsState = doorsStates[buffer.get()];
+            final double segmentSpeed = buffer.getDouble();
+            final double lastSpeed = buffer.getDouble();
+            segments.add(PlanSegment.of(firstFloor, lastFloor, leadNanos, segmentNanosPerFloor,
+                    segmentDoorsState, segmentSpeed, lastSpeed));
+        }
+        return new PlanSnapshot(minFloor, maxFloor, nanosPerFloor, timeoutInNanos,
+                floor, doorsState, speed, segments, offsetsNanos);
+    }
+
+    /* --------
+     * Getters
+     */
+
+    public int getMinFloor() {
+        return minFloor;
+    }
+
+    public int getMaxFloor() {
+        return maxFloor;
+    }
+
+    public long getNanosPerFloor() {
+        return nanosPerFloor;
+    }
+
+    public long getTimeoutInNanos() {
+        return timeoutInNanos;
+    }
+
+    public int getFloor() {
+        return floor;
+    }
+
+    @Nonnull
+    public DoorsState getDoorsState() {
+        return doorsState;
+    }
+
+    public double getSpeed() {
+        return speed;
+    }
+
+    /**
+     * @return the number of planned segments
+     */
+    public int getSegmentCount() {
+        return segments.size();
+    }
+
+    @Nonnull
+    PlanSegment getSegment(final int index) {
+        return segments.get(index);
+    }
+
+    /**
+     * @return nanoseconds from the moment of the snapshot to the first state of the segment
+     */
+    long getOffsetNanos(final int index) {
+        return offsetsNanos[index];
+    }
+}
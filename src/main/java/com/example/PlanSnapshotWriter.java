@@ -0,0 +1,63 @@
+package com.example;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nonnull;
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.nio.file.Path;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writes the {@link PlanSnapshot}s of all the cars of a bank periodically, from a daemon thread,
+ * and once more when closed. Only created when the snapshots are asked for, so there is no thread otherwise.
+ */
+public class PlanSnapshotWriter implements AutoCloseable {
+    private final static Logger log = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+
+    private final ElevatorBank bank;
+    private final Path file;
+    private final ScheduledExecutorService scheduler;
+
+    public PlanSnapshotWriter(@Nonnull final ElevatorBank bank,
+                              @Nonnull final Path file,
+                              final double periodInSeconds) {
+        if (periodInSeconds <= 0.0d) {
+            throw new ElevatorException("Please provide the snapshot period greater than zero.");
+        }
+        this.bank = bank;
+        this.file = file;
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            final Thread thread = new Thread(runnable, "plan-snapshot-writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        final long periodInNanos = (long) (periodInSeconds * Constants.NANOS_PER_SECOND);
+        scheduler.scheduleAtFixedRate(this::write, periodInNanos, periodInNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Writes the snapshot now; a failure is logged, the previous snapshot stays as it was.
+     */
+    synchronized
+    public void write() {
+        try {
+            PlanSnapshot.write(file, bank.takeSnapshots());
+            log.debug("snapshot written: {}", file);
+        } catch (final IOException | RuntimeException e) {
+            log.error("The snapshot can not be written to " + file, e);
+        }
+    }
+
+    /**
+     * Stops the periodic snapshots and writes the final one.
+     */
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+        write();
+    }
+}
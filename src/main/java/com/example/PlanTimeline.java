@@ -0,0 +1,393 @@
+package com.example;
+
+import javax.annotation.Nonnull;
+
+/**
+ * The chronological sequence of {@link PlanSegment}s of an {@link ElevatorPlan}.
+ * <p>
+ * Every node only remembers the offset of its first state from the first state of the previous node,
+ * and the nodes are kept in a randomized balanced tree (a treap) with the offsets summed up per subtree.
+ * So the moment of any node is a prefix sum, and postponing a node together with everything after it
+ * is a single offset change, both in O(log n).
+ * <p>
+ * The lowest and the highest floors are kept per subtree as well. The elevator passes every floor on its way,
+ * so the segments of consecutive nodes are next to each other, and the floors of any subtree make an interval:
+ * the first node passing a floor, or the last one at the highest or the lowest floor, is found in O(log n).
+ * <p>
+ * (Not thread-safe, guarded by the owning {@link Elevator})
+ */
+final class PlanTimeline {
+
+    static final class Node {
+        private PlanSegment segment;
+        private Direction direction;
+        private long offsetNanos; // from the first state of the previous node, or from the epoch for the first node
+        private long subtreeOffsetNanos;
+        private int subtreeSize;
+        private int subtreeLowestFloor;
+        private int subtreeHighestFloor;
+        private final int priority;
+        private Node left;
+        private Node right;
+        private Node parent;
+
+        private Node(@Nonnull final PlanSegment segment,
+                     @Nonnull final Direction direction,
+                     final int priority) {
+            this.segment = segment;
+            this.direction = direction;
+            this.priority = priority;
+        }
+
+        @Nonnull
+        public PlanSegment getSegment() {
+            return segment;
+        }
+
+        @Nonnull
+        public Direction getDirection() {
+            return direction;
+        }
+
+        /**
+         * @return nanoseconds from the first state of the previous node (or from the epoch for the first node)
+         */
+        public long getOffsetNanos() {
+            return offsetNanos;
+        }
+
+        private void update() {
+            subtreeOffsetNanos = offsetNanos + sumOf(left) + sumOf(right);
+            subtreeSize = 1 + sizeOf(left) + sizeOf(right);
+            subtreeLowestFloor = Math.min(lowestOf(segment), Math.min(lowestOf(left), lowestOf(right)));
+            subtreeHighestFloor = Math.max(highestOf(segment), Math.max(highestOf(left), highestOf(right)));
+        }
+    }
+
+    private Node root;
+    private int seed = 0x2545F491;
+
+    public int size() {
+        return sizeOf(root);
+    }
+
+    public boolean isEmpty() {
+        return root == null;
+    }
+
+    public Node first() {
+        return root == null ? null : leftmost(root);
+    }
+
+    public Node last() {
+        if (root == null) {
+            return null;
+        }
+        Node node = root;
+        while (node.right != null) {
+            node = node.right;
+        }
+        return node;
+    }
+
+    public Node next(@Nonnull final Node node) {
+        if (node.right != null) {
+            return leftmost(node.right);
+        }
+        Node child = node;
+        Node parent = node.parent;
+        while (parent != null && parent.right == child) {
+            child = parent;
+            parent = parent.parent;
+        }
+        return parent;
+    }
+
+    public Node previous(@Nonnull final Node node) {
+        if (node.left != null) {
+            Node result = node.left;
+            while (result.right != null) {
+                result = result.right;
+            }
+            return result;
+        }
+        Node child = node;
+        Node parent = node.parent;
+        while (parent != null && parent.left == child) {
+            child = parent;
+            parent = parent.parent;
+        }
+        return parent;
+    }
+
+    /**
+     * @return the moment of the first state of the node
+     */
+    public long firstEpochNanosOf(@Nonnull final Node node) {
+        long result = node.offsetNanos + sumOf(node.left);
+        Node child = node;
+        Node parent = node.parent;
+        while (parent != null) {
+            if (parent.right == child) {
+                result += parent.offsetNanos + sumOf(parent.left);
+            }
+            child = parent;
+            parent = parent.parent;
+        }
+        return result;
+    }
+
+    public long lastEpochNanosOf(@Nonnull final Node node) {
+        return firstEpochNanosOf(node) + node.segment.getDurationNanos();
+    }
+
+    /**
+     * @return the position of the node in the chronological order
+     */
+    public int rankOf(@Nonnull final Node node) {
+        int result = sizeOf(node.left);
+        Node child = node;
+        Node parent = node.parent;
+        while (parent != null) {
+            if (parent.right == child) {
+                result += 1 + sizeOf(parent.left);
+            }
+            child = parent;
+            parent = parent.parent;
+        }
+        return result;
+    }
+
+    /**
+     * @return the last node whose first state is planned at the given moment or earlier, or null
+     */
+    public Node floor(final long epochNanos) {
+        Node result = null;
+        Node node = root;
+        long before = 0L; // the sum of the offsets of everything to the left of the current subtree
+        while (node != null) {
+            final long first = before + sumOf(node.left) + node.offsetNanos;
+            if (first <= epochNanos) {
+                result = node;
+                before = first;
+                node = node.right;
+            } else {
+                node = node.left;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return the first node whose segment passes the given floor, or null
+     */
+    public Node firstPassing(final int floor) {
+        Node node = root;
+        while (node != null) {
+            if (node.left != null && node.left.subtreeLowestFloor <= floor && floor <= node.left.subtreeHighestFloor) {
+                node = node.left;
+            } else if (node.segment.indexOfFloor(floor) >= 0) {
+                return node;
+            } else {
+                node = node.right;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return the last node whose segment reaches the highest floor of all, or null
+     */
+    public Node lastAtHighest() {
+        Node node = root;
+        while (node != null) {
+            if (node.right != null && node.right.subtreeHighestFloor == node.subtreeHighestFloor) {
+                node = node.right;
+            } else if (highestOf(node.segment) == node.subtreeHighestFloor) {
+                return node;
+            } else {
+                node = node.left;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return the last node whose segment reaches the lowest floor of all, or null
+     */
+    public Node lastAtLowest() {
+        Node node = root;
+        while (node != null) {
+            if (node.right != null && node.right.subtreeLowestFloor == node.subtreeLowestFloor) {
+                node = node.right;
+            } else if (lowestOf(node.segment) == node.subtreeLowestFloor) {
+                return node;
+            } else {
+                node = node.left;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Inserts a segment right after the given node (or at the very beginning, if it is null).
+     * The moments of all the other nodes stay the same.
+     */
+    @Nonnull
+    public Node insertAfter(final Node previous,
+                            @Nonnull final PlanSegment segment,
+                            @Nonnull final Direction direction,
+                            final long firstEpochNanos) {
+        final Node following = previous == null ? first() : next(previous);
+        final Node node = new Node(segment, direction, nextPriority());
+        node.offsetNanos = previous == null
+                           ? firstEpochNanos
+                           : firstEpochNanos - firstEpochNanosOf(previous);
+        if (following != null) {
+            setOffset(following, following.offsetNanos - node.offsetNanos);
+        }
+        if (root == null) {
+            root = node;
+        } else if (previous != null && previous.right == null) {
+            previous.right = node;
+            node.parent = previous;
+        } else {
+            // the following node is the leftmost one in its subtree, so its left place is free
+            following.left = node;
+            node.parent = following;
+        }
+        updateUpwards(node);
+        while (node.parent != null && node.parent.priority < node.priority) {
+            rotateUp(node);
+        }
+        return node;
+    }
+
+    /**
+     * Removes the node. The moments of all the other nodes stay the same.
+     */
+    public void remove(@Nonnull final Node node) {
+        final Node following = next(node);
+        while (node.left != null || node.right != null) {
+            final Node child = node.left == null
+                               || (node.right != null && node.right.priority > node.left.priority)
+                               ? node.right
+                               : node.left;
+            rotateUp(child);
+        }
+        final Node parent = node.parent;
+        if (parent == null) {
+            root = null;
+        } else if (parent.left == node) {
+            parent.left = null;
+        } else {
+            parent.right = null;
+        }
+        node.parent = null;
+        updateUpwards(parent);
+        if (following != null) {
+            setOffset(following, following.offsetNanos + node.offsetNanos);
+        }
+    }
+
+    /**
+     * Moves the node and everything after it to a later moment.
+     */
+    public void postpone(@Nonnull final Node node,
+                         final long nanos) {
+        setOffset(node, node.offsetNanos + nanos);
+    }
+
+    public void setSegment(@Nonnull final Node node,
+                           @Nonnull final PlanSegment segment) {
+        node.segment = segment;
+        updateUpwards(node);
+    }
+
+    public void setDirection(@Nonnull final Node node,
+                             @Nonnull final Direction direction) {
+        node.direction = direction;
+    }
+
+    private void setOffset(@Nonnull final Node node,
+                           final long offsetNanos) {
+        node.offsetNanos = offsetNanos;
+        updateUpwards(node);
+    }
+
+    private static void updateUpwards(final Node node) {
+        Node ancestor = node;
+        while (ancestor != null) {
+            ancestor.update();
+            ancestor = ancestor.parent;
+        }
+    }
+
+    private void rotateUp(@Nonnull final Node node) {
+        final Node parent = node.parent;
+        final Node grandparent = parent.parent;
+        if (parent.left == node) {
+            parent.left = node.right;
+            if (node.right != null) {
+                node.right.parent = parent;
+            }
+            node.right = parent;
+        } else {
+            parent.right = node.left;
+            if (node.left != null) {
+                node.left.parent = parent;
+            }
+            node.left = parent;
+        }
+        parent.parent = node;
+        node.parent = grandparent;
+        if (grandparent == null) {
+            root = node;
+        } else if (grandparent.left == parent) {
+            grandparent.left = node;
+        } else {
+            grandparent.right = node;
+        }
+        parent.update();
+        node.update();
+    }
+
+    private int nextPriority() {
+        // xorshift: cheap, and keeps the shape of the tree reproducible from run to run
+        seed ^= seed << 13;
+        seed ^= seed >>> 17;
+        seed ^= seed << 5;
+        return seed;
+    }
+
+    private static Node leftmost(@Nonnull Node node) {
+        while (node.left != null) {
+            node = node.left;
+        }
+        return node;
+    }
+
+    private static long sumOf(final Node node) {
+        return node == null ? 0L : node.subtreeOffsetNanos;
+    }
+
+    private static int sizeOf(final Node node) {
+        return node == null ? 0 : node.subtreeSize;
+    }
+
+    private static int lowestOf(final Node node) {
+        return node == null ? Integer.MAX_VALUE : node.subtreeLowestFloor;
+    }
+
+    private static int highestOf(final Node node) {
+        return node == null ? Integer.MIN_VALUE : node.subtreeHighestFloor;
+    }
+
+    private static int lowestOf(@Nonnull final PlanSegment segment) {
+        return Math.min(segment.getFirstFloor(), segment.getLastFloor());
+    }
+
+    private static int highestOf(@Nonnull final PlanSegment segment) {
+        return Math.max(segment.getFirstFloor(), segment.getLastFloor());
+    }
+}
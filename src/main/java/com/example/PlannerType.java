@@ -0,0 +1,47 @@
+package com.example;
+
+import javax.annotation.Nonnull;
+import java.util.Arrays;
+
+/**
+ * The ways an {@link Elevator} can plan its stops.
+ */
+public enum PlannerType {
+    /**
+     * Every new stop is a separate excursion from the place where the elevator is planned to be anyway
+     * (the last visit of the floor, or the farthest point in the wanted direction) and back,
+     * while everything planned after it is postponed.
+     */
+    EXCURSIONS {
+        @Nonnull
+        @Override
+        MovementPlanner create(@Nonnull final Elevator elevator) {
+            return new ExcursionPlanner(elevator);
+        }
+    },
+    /**
+     * The collective LOOK (elevator SCAN) algorithm: the elevator keeps going in its direction,
+     * stopping at every requested floor on the way, and turns back after the farthest stop.
+     */
+    LOOK {
+        @Nonnull
+        @Override
+        MovementPlanner create(@Nonnull final Elevator elevator) {
+            return new LookPlanner(elevator);
+        }
+    };
+
+    @Nonnull
+    abstract MovementPlanner create(@Nonnull Elevator elevator);
+
+    @Nonnull
+    public static PlannerType of(@Nonnull final String name) {
+        for (final PlannerType type : values()) {
+            if (type.name().equalsIgnoreCase(name)) {
+                return type;
+            }
+        }
+        throw new ElevatorException("Sorry, there is no planner \"" + name + "\", please use one of: "
+                + Arrays.toString(values()).toLowerCase() + ".");
+    }
+}
@@ -0,0 +1,34 @@
+package com.example;
+
+import javax.annotation.Nonnull;
+import java.time.Instant;
+
+import static com.example.Constants.NANOS_PER_SECOND;
+
+/**
+ * Source of the "current moment" for the elevator simulation.
+ * <p>
+ * {@link WallClock} follows the real time, {@link VirtualClock} only moves when it is told to,
+ * which lets a simulation jump straight from one planned state to the next one.
+ */
+public interface SimulationClock {
+
+    /**
+     * @return the current moment in nanoseconds since the epoch; never goes backwards
+     */
+    long epochNanos();
+
+    @Nonnull
+    default Instant instant() {
+        return toInstant(epochNanos());
+    }
+
+    static long toEpochNanos(@Nonnull final Instant instant) {
+        return instant.getEpochSecond() * NANOS_PER_SECOND + instant.getNano();
+    }
+
+    @Nonnull
+    static Instant toInstant(final long epochNanos) {
+        return Instant.ofEpochSecond(0, epochNanos);
+    }
+}
@@ -0,0 +1,117 @@
+package com.example;
+
+import static com.example.Constants.NANOS_PER_SECOND;
+
+/**
+ * (Immutable) Summary statistics of a {@link BatchSimulation} run.
+ */
+public class SimulationReport {
+
+    private final ElevatorSettings settings;
+    private final int passengers;
+    private final int delivered;
+    private final long totalWaitNanos;
+    private final long maxWaitNanos;
+    private final long totalRideNanos;
+    private final long maxRideNanos;
+    private final int stops;
+    private final int maxPlanSize;
+    private final double averagePlanSize;
+    private final long simulatedNanos;
+    private final long elapsedNanos;
+
+    public SimulationReport(final ElevatorSettings settings,
+                            final int passengers,
+                            final int delivered,
+                            final long totalWaitNanos,
+                            final long maxWaitNanos,
+                            final long totalRideNanos,
+                            final long maxRideNanos,
+                            final int stops,
+                            final int maxPlanSize,
+                            final double averagePlanSize,
+                            final long simulatedNanos,
+                            final long elapsedNanos) {
+        this.settings = settings;
+        this.passengers = passengers;
+        this.delivered = delivered;
+        this.totalWaitNanos = totalWaitNanos;
+        this.maxWaitNanos = maxWaitNanos;
+        this.totalRideNanos = totalRideNanos;
+        this.maxRideNanos = maxRideNanos;
+        this.stops = stops;
+        this.maxPlanSize = maxPlanSize;
+        this.averagePlanSize = averagePlanSize;
+        this.simulatedNanos = simulatedNanos;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    @Override
+    public String toString() {
+        return "Simulation of " + settings + "\n" +
+                String.format("  passengers:  %d, delivered: %d%n", passengers, delivered) +
+                String.format("  wait time:   average %.3f s, max %.3f s%n",
+                        seconds(getAverageWaitNanos()), seconds(maxWaitNanos)) +
+                String.format("  ride time:   average %.3f s, max %.3f s%n",
+                        seconds(getAverageRideNanos()), seconds(maxRideNanos)) +
+                String.format("  stops:       %d%n", stops) +
+                String.format("  plan size:   average %.1f, max %d states%n", averagePlanSize, maxPlanSize) +
+                String.format("  simulated %.3f s in %.3f s", seconds(simulatedNanos), seconds(elapsedNanos));
+    }
+
+    private static double seconds(final long nanos) {
+        return (double) nanos / NANOS_PER_SECOND;
+    }
+
+    public long getAverageWaitNanos() {
+        return delivered == 0 ? 0L : totalWaitNanos / delivered;
+    }
+
+    public long getAverageRideNanos() {
+        return delivered == 0 ? 0L : totalRideNanos / delivered;
+    }
+
+    /* --------
+     * Getters
+     */
+
+    public ElevatorSettings getSettings() {
+        return settings;
+    }
+
+    public int getPassengers() {
+        return passengers;
+    }
+
+    public int getDelivered() {
+        return delivered;
+    }
+
+    public long getMaxWaitNanos() {
+        return maxWaitNanos;
+    }
+
+    public long getMaxRideNanos() {
+        return maxRideNanos;
+    }
+
+    public int getStops() {
+        return stops;
+    }
+
+    public int getMaxPlanSize() {
+        return maxPlanSize;
+    }
+
+    public double getAveragePlanSize() {
+        return averagePlanSize;
+    }
+
+    public long getSimulatedNanos() {
+        return simulatedNanos;
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+}
@@ -0,0 +1,213 @@
+package com.example;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nonnull;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.invoke.MethodHandles;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * An append-only binary journal of elevator state transitions, cheap enough to be always on.
+ * <p>
+ * Every transition is a fixed-width record written straight into a memory-mapped segment file,
+ * so appending is a few stores into memory, without any formatting, buffering or system call;
+ * the operating system writes the pages out. When a segment is full the next one is started at once,
+ * and the full one is forced to the disk by a thread of its own, so the car never waits for the disk.
+ * Segments are files {@code journal-<number>.dat} in a directory; a new journal never touches the existing ones.
+ * <p>
+ * The layout, little-endian: a segment header of {@value #HEADER_SIZE} bytes
+ * (magic, version, record size, records per segment), then the records of {@value #RECORD_SIZE} bytes:
+ * the planned epoch nanoseconds, the speed, the floor, the car number, the doors state and the commit mark,
+ * which is written last, so a record torn by a crash is never read.
+ *
+ * @see JournalReader
+ */
+public class StateJournal implements AutoCloseable {
+    private final static Logger log = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+
+    static final int MAGIC = 0x4A564C45; // "ELVJ" in little-endian
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 16;
+    static final int RECORD_SIZE = 24;
+    static final int EPOCH_NANOS_OFFSET = 0;
+    static final int SPEED_OFFSET = 8;
+    static final int FLOOR_OFFSET = 16;
+    static final int CAR_OFFSET = 20;
+    static final int DOORS_OFFSET = 22;
+    static final int COMMIT_OFFSET = 23;
+    static final byte COMMITTED = 1;
+    static final Pattern SEGMENT_NAME = Pattern.compile("journal-(\\d{8})\\.dat");
+    static final ByteOrder BYTE_ORDER = ByteOrder.LITTLE_ENDIAN;
+
+    public static final int DEFAULT_RECORDS_PER_SEGMENT = 1 << 20; // 24 MB per segment
+
+    private static final long SHUTDOWN_TIMEOUT_IN_SECONDS = 5;
+
+    private final Path directory;
+    private final int recordsPerSegment;
+    private final ExecutorService flusher; // forces the full segments
+
+    // guarded by this
+    private int segmentNumber;
+    private MappedByteBuffer segment;
+    private int recordsInSegment;
+    private long recordCount;
+    private boolean closed;
+
+    public StateJournal(@Nonnull final Path directory) throws IOException {
+        this(directory, DEFAULT_RECORDS_PER_SEGMENT);
+    }
+
+    public StateJournal(@Nonnull final Path directory,
+                        final int recordsPerSegment) throws IOException {
+        if (recordsPerSegment < 1 || recordsPerSegment > (Integer.MAX_VALUE - HEADER_SIZE) / RECORD_SIZE) {
+            throw new ElevatorException("Please provide the number of journal records per segment"
+                    + " between 1 and " + (Integer.MAX_VALUE - HEADER_SIZE) / RECORD_SIZE + ".");
+        }
+        this.directory = directory;
+        this.recordsPerSegment = recordsPerSegment;
+        Files.createDirectories(directory);
+        final List<Path> existing = segmentsOf(directory);
+        segmentNumber = existing.isEmpty() ? 0 : numberOf(existing.get(existing.size() - 1));
+        openNextSegment();
+        flusher = Executors.newSingleThreadExecutor(runnable -> {
+            final Thread thread = new Thread(runnable, "journal-flusher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        log.debug("Created: {}", this);
+    }
+
+    @Override
+    public String toString() {
+        return "StateJournal{" +
+                "directory=" + directory +
+                ", recordsPerSegment=" + recordsPerSegment +
+                '}';
+    }
+
+    /**
+     * @return a listener which journals the transitions of the given car
+     */
+    @Nonnull
+    public ElevatorStateListener listenerFor(final int carNumber) {
+        if (carNumber < 0 || carNumber > Short.MAX_VALUE) {
+            throw new ElevatorException("Sorry, the journal can not tell apart more than " + Short.MAX_VALUE + " cars.");
+        }
+        return (previousState, newState) -> append(carNumber, newState);
+    }
+
+    synchronized
+    public void append(final int carNumber,
+                       @Nonnull final ElevatorState state) {
+        if (closed) {
+            log.debug("The journal is closed, a transition is not recorded: {}", state);
+            return;
+        }
+        if (recordsInSegment == recordsPerSegment) {
+            final MappedByteBuffer full = segment;
+            openNextSegment();
+            flusher.execute(full::force);
+        }
+        final int position = HEADER_SIZE + recordsInSegment * RECORD_SIZE;
+        segment.putLong(position + EPOCH_NANOS_OFFSET, state.getPlannedEpochNanos());
+        segment.putDouble(position + SPEED_OFFSET, state.getSpeed());
+        segment.putInt(position + FLOOR_OFFSET, state.getFloor());
+        segment.putShort(position + CAR_OFFSET, (short) carNumber);
+        segment.put(position + DOORS_OFFSET, (byte) state.getDoorsState().ordinal());
+        segment.put(position + COMMIT_OFFSET, COMMITTED);
+        recordsInSegment++;
+        recordCount++;
+    }
+
+    /**
+     * @return the number of records appended by this journal
+     */
+    synchronized
+    public long getRecordCount() {
+        return recordCount;
+    }
+
+    /**
+     * Forces the current segment to the disk and waits for the full ones; later transitions are ignored.
+     */
+    @Override
+    synchronized
+    public void close() {
+        if (!closed) {
+            closed = true;
+            segment.force();
+            flusher.shutdown();
+            try {
+                if (!flusher.awaitTermination(SHUTDOWN_TIMEOUT_IN_SECONDS, TimeUnit.SECONDS)) {
+                    log.warn("The journal segments have not been forced to the disk in time.");
+                }
+            } catch (final InterruptedException e) {
+                log.warn("Interrupted while forcing the journal segments to the disk.");
+                Thread.currentThread().interrupt();
+            }
+            log.debug("The journal is closed after {} records.", recordCount);
+        }
+    }
+
+    private void openNextSegment() {
+        segmentNumber++;
+        final Path file = directory.resolve(String.format("journal-%08d.dat", segmentNumber));
+        final long size = HEADER_SIZE + (long) recordsPerSegment * RECORD_SIZE;
+        try (final FileChannel channel = FileChannel.open(file,
+                StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, size); // stays valid after the channel is closed
+        } catch (final IOException e) {
+            throw new UncheckedIOException("The journal segment can not be created: " + file, e);
+        }
+        segment.order(BYTE_ORDER);
+        segment.putInt(0, MAGIC);
+        segment.putInt(4, VERSION);
+        segment.putInt(8, RECORD_SIZE);
+        segment.putInt(12, recordsPerSegment);
+        recordsInSegment = 0;
+        log.debug("journal segment started: {}", file);
+    }
+
+    /**
+     * @return the segment files of the directory, in the order they were written
+     */
+    @Nonnull
+    static List<Path> segmentsOf(@Nonnull final Path directory) throws IOException {
+        final List<Path> result = new ArrayList<>();
+        try (final DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+            for (final Path file : files) {
+                if (SEGMENT_NAME.matcher(file.getFileName().toString()).matches()) {
+                    result.add(file);
+                }
+            }
+        }
+        Collections.sort(result); // the numbers have a fixed width
+        return result;
+    }
+
+    private static int numberOf(@Nonnull final Path segmentFile) {
+        final Matcher matcher = SEGMENT_NAME.matcher(segmentFile.getFileName().toString());
+        if (!matcher.matches()) {
+            throw new IllegalStateException("Internal error: Not a journal segment: " + segmentFile);
+        }
+        return Integer.parseInt(matcher.group(1));
+    }
+}
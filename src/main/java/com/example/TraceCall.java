@@ -0,0 +1,100 @@
+package com.example;
+
+import javax.annotation.Nonnull;
+
+import static com.example.Constants.NANOS_PER_SECOND;
+
+/**
+ * (Immutable) One passenger from a call trace: a hall call at some moment, and the floor to ride to.
+ * <p>
+ * A line of a trace file looks like {@code <seconds> <floor> <UP|DOWN> <destination>},
+ * where the seconds are counted from the start of the simulation.
+ */
+public class TraceCall {
+
+    private final long offsetNanos;
+    private final int floor;
+    private final int destination;
+
+    public TraceCall(final long offsetNanos,
+                     final int floor,
+                     final int destination) {
+        if (offsetNanos < 0) {
+            throw new ElevatorException("A call can not happen before the start of the simulation.");
+        }
+        this.offsetNanos = offsetNanos;
+        if (floor == destination) {
+            throw new ElevatorException("A passenger should go to another floor than " + floor + ".");
+        }
+        this.floor = floor;
+        this.destination = destination;
+    }
+
+    /**
+     * @param lineNumber for the error messages
+     */
+    @Nonnull
+    public static TraceCall parse(@Nonnull final String line,
+                                  final int lineNumber) {
+        final String[] fields = line.trim().split("[\\s,;]+");
+        if (fields.length != 4) {
+            throw new ElevatorException("Line " + lineNumber + " of the trace should look like" +
+                    " '<seconds> <floor> <UP|DOWN> <destination>': " + line);
+        }
+        final TraceCall result;
+        try {
+            result = new TraceCall(
+                    (long) (Double.parseDouble(fields[0]) * NANOS_PER_SECOND),
+                    Integer.parseInt(fields[1]),
+                    Integer.parseInt(fields[3]));
+        } catch (final NumberFormatException e) {
+            throw new ElevatorException("Line " + lineNumber + " of the trace has a malformed number: " + line);
+        } catch (final ElevatorException e) {
+            throw new ElevatorException("Line " + lineNumber + " of the trace: " + e.getMessage());
+        }
+        final Direction direction;
+        switch (fields[2].toUpperCase()) {
+            case "UP":
+            case "U":
+                direction = Direction.UP;
+                break;
+            case "DOWN":
+            case "D":
+                direction = Direction.DOWN;
+                break;
+            default:
+                throw new ElevatorException("Line " + lineNumber + " of the trace has an unknown direction: " + line);
+        }
+        if (direction != result.getDirection()) {
+            throw new ElevatorException("Line " + lineNumber + " of the trace: the direction " + direction +
+                    " does not lead to the floor # " + result.getDestination());
+        }
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return offsetNanos / (double) NANOS_PER_SECOND + " " + floor + " " + getDirection() + " " + destination;
+    }
+
+    @Nonnull
+    Direction getDirection() {
+        return Direction.of(destination - floor);
+    }
+
+    /* --------
+     * Getters
+     */
+
+    public long getOffsetNanos() {
+        return offsetNanos;
+    }
+
+    public int getFloor() {
+        return floor;
+    }
+
+    public int getDestination() {
+        return destination;
+    }
+}
@@ -0,0 +1,27 @@
+package com.example;
+
+/**
+ * What has happened to an elevator, as recorded by an {@link ElevatorTrace}.
+ */
+public enum TraceEvent {
+    CALL(null),
+    RIDE(null),
+    PLANNED("planned states"),
+    POSTPONED("ns postponed"),
+    APPLIED(null),
+    DISPATCHED("ns in the listeners");
+
+    private final String valueDescription; // null if the event has no value
+
+    TraceEvent(final String valueDescription) {
+        this.valueDescription = valueDescription;
+    }
+
+    public boolean hasValue() {
+        return valueDescription != null;
+    }
+
+    public String getValueDescription() {
+        return valueDescription;
+    }
+}
@@ -0,0 +1,92 @@
+package com.example;
+
+import javax.annotation.Nonnull;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static com.example.Constants.NANOS_PER_SECOND;
+
+/**
+ * (Immutable) Synthetic passengers for load tests: they arrive as a Poisson process at the given average rate,
+ * and their floors follow a {@link TrafficPattern}.
+ * <p>
+ * The same seed always gives the same passengers, so a load test can be repeated with other settings.
+ */
+public class TrafficGenerator {
+
+    private final TrafficPattern pattern;
+    private final double callsPerMinute;
+    private final double durationInSeconds;
+    private final long seed;
+
+    public TrafficGenerator(@Nonnull final TrafficPattern pattern,
+                            final double callsPerMinute,
+                            final double durationInSeconds,
+                            final long seed) {
+        if (callsPerMinute <= 0.0d) {
+            throw new ElevatorException("Please provide the rate of the calls greater than zero.");
+        }
+        if (durationInSeconds <= 0.0d) {
+            throw new ElevatorException("Please provide the duration of the traffic greater than zero.");
+        }
+        this.pattern = pattern;
+        this.callsPerMinute = callsPerMinute;
+        this.durationInSeconds = durationInSeconds;
+        this.seed = seed;
+    }
+
+    @Override
+    public String toString() {
+        return "TrafficGenerator{" +
+                "pattern=" + pattern +
+                ", callsPerMinute=" + callsPerMinute +
+                ", duration=" + durationInSeconds +
+                ", seed=" + seed +
+                '}';
+    }
+
+    /**
+     * @return the calls in the building of the given settings, in chronological order
+     */
+    @Nonnull
+    public List<TraceCall> generate(@Nonnull final ElevatorSettings settings) {
+        final int minFloor = settings.getMinFloor();
+        final int maxFloor = settings.getFloors();
+        final int lobbyFloor = Elevator.lobbyFloorOf(minFloor, maxFloor);
+        final Random random = new Random(seed);
+        final double meanGapNanos = 60.0d * NANOS_PER_SECOND / callsPerMinute;
+        final long durationNanos = (long) (durationInSeconds * NANOS_PER_SECOND);
+        final List<TraceCall> result = new ArrayList<>();
+        long offsetNanos = 0L;
+        while (true) {
+            // exponential gaps between the arrivals; 1 - nextDouble() is never zero
+            offsetNanos += (long) (-Math.log(1.0d - random.nextDouble()) * meanGapNanos);
+            if (offsetNanos >= durationNanos) {
+                return result;
+            }
+            result.add(pattern.call(offsetNanos, random, minFloor, maxFloor, lobbyFloor));
+        }
+    }
+
+    /* --------
+     * Getters
+     */
+
+    @Nonnull
+    public TrafficPattern getPattern() {
+        return pattern;
+    }
+
+    public double getCallsPerMinute() {
+        return callsPerMinute;
+    }
+
+    public double getDurationInSeconds() {
+        return durationInSeconds;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+}
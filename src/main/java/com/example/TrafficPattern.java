@@ -0,0 +1,120 @@
+package com.example;
+
+import javax.annotation.Nonnull;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Where the passengers come from and where they go to, for a {@link TrafficGenerator}.
+ * <p>
+ * Only the floors are drawn here: the passengers of every pattern arrive at random (Poisson) moments.
+ */
+public enum TrafficPattern {
+    /**
+     * Interfloor traffic: any floor to any other floor.
+     */
+    BACKGROUND {
+        @Nonnull
+        @Override
+        TraceCall call(final long offsetNanos,
+                       @Nonnull final Random random,
+                       final int minFloor,
+                       final int maxFloor,
+                       final int lobbyFloor) {
+            final int floor = anyFloor(random, minFloor, maxFloor);
+            return new TraceCall(offsetNanos, floor, anyFloorBut(random, minFloor, maxFloor, floor));
+        }
+    },
+    /**
+     * The morning: most of the passengers come in at the lobby and go up.
+     */
+    UP_PEAK {
+        @Nonnull
+        @Override
+        TraceCall call(final long offsetNanos,
+                       @Nonnull final Random random,
+                       final int minFloor,
+                       final int maxFloor,
+                       final int lobbyFloor) {
+            if (random.nextDouble() < PEAK_SHARE) {
+                return new TraceCall(offsetNanos, lobbyFloor, anyFloorBut(random, minFloor, maxFloor, lobbyFloor));
+            }
+            return BACKGROUND.call(offsetNanos, random, minFloor, maxFloor, lobbyFloor);
+        }
+    },
+    /**
+     * The lunch time: the passengers go out through the lobby and come back, in about the same numbers.
+     */
+    LUNCH {
+        @Nonnull
+        @Override
+        TraceCall call(final long offsetNanos,
+                       @Nonnull final Random random,
+                       final int minFloor,
+                       final int maxFloor,
+                       final int lobbyFloor) {
+            final double share = random.nextDouble();
+            if (share < PEAK_SHARE / 2) {
+                return UP_PEAK.call(offsetNanos, random, minFloor, maxFloor, lobbyFloor);
+            }
+            if (share < PEAK_SHARE) {
+                return DOWN_PEAK.call(offsetNanos, random, minFloor, maxFloor, lobbyFloor);
+            }
+            return BACKGROUND.call(offsetNanos, random, minFloor, maxFloor, lobbyFloor);
+        }
+    },
+    /**
+     * The evening: most of the passengers go down to the lobby.
+     */
+    DOWN_PEAK {
+        @Nonnull
+        @Override
+        TraceCall call(final long offsetNanos,
+                       @Nonnull final Random random,
+                       final int minFloor,
+                       final int maxFloor,
+                       final int lobbyFloor) {
+            if (random.nextDouble() < PEAK_SHARE) {
+                return new TraceCall(offsetNanos, anyFloorBut(random, minFloor, maxFloor, lobbyFloor), lobbyFloor);
+            }
+            return BACKGROUND.call(offsetNanos, random, minFloor, maxFloor, lobbyFloor);
+        }
+    };
+
+    /**
+     * The share of the passengers going from or to the lobby during a peak; the rest is the background traffic.
+     */
+    private static final double PEAK_SHARE = 0.85d;
+
+    @Nonnull
+    abstract TraceCall call(long offsetNanos,
+                            @Nonnull Random random,
+                            int minFloor,
+                            int maxFloor,
+                            int lobbyFloor);
+
+    @Nonnull
+    public static TrafficPattern of(@Nonnull final String name) {
+        for (final TrafficPattern pattern : values()) {
+            if (pattern.name().equalsIgnoreCase(name.replace('-', '_'))) {
+                return pattern;
+            }
+        }
+        throw new ElevatorException("Sorry, there is no traffic pattern \"" + name + "\", please use one of: "
+                + Arrays.toString(values()).toLowerCase().replace('_', '-') + ".");
+    }
+
+    private static int anyFloor(@Nonnull final Random random,
+                                final int minFloor,
+                                final int maxFloor) {
+        return minFloor + random.nextInt(maxFloor - minFloor + 1);
+    }
+
+    private static int anyFloorBut(@Nonnull final Random random,
+                                   final int minFloor,
+                                   final int maxFloor,
+                                   final int floor) {
+        final int other = minFloor + random.nextInt(maxFloor - minFloor); // one floor fewer to choose from
+        return other >= floor ? other + 1 : other;
+    }
+}
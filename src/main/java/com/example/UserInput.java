@@ -3,58 +3,65 @@ package com.example;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.annotation.Nonnull;
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.lang.invoke.MethodHandles;
-import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.function.Consumer;
 
+/**
+ * Reads the user's input on a daemon thread, which blocks until a whole line is typed in,
+ * and hands every line over as soon as it is there.
+ */
 public class UserInput implements AutoCloseable {
     private final static Logger log = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
 
     private final BufferedReader reader;
-    private ConcurrentLinkedDeque<String> lines;
+    private final Consumer<String> lineConsumer;
+    private final Runnable endOfInput;
     private final Thread daemon;
 
-    public UserInput(final InputStream in) {
+    /**
+     * @param lineConsumer called on the daemon thread with every line
+     * @param endOfInput   called on the daemon thread when there is nothing more to read
+     */
+    public UserInput(@Nonnull final InputStream in,
+                     @Nonnull final Consumer<String> lineConsumer,
+                     @Nonnull final Runnable endOfInput) {
         this.reader = new BufferedReader(new InputStreamReader(in));
-        this.lines = new ConcurrentLinkedDeque<>();
+        this.lineConsumer = lineConsumer;
+        this.endOfInput = endOfInput;
 
-        daemon = new Thread(new UserInputDaemon());
+        daemon = new Thread(new UserInputDaemon(), "user-input");
         daemon.setDaemon(true);
         daemon.start();
     }
 
+    /**
+     * The stream is not closed here: a blocked read would keep the reader locked, so closing it could hang.
+     * The daemon thread does not hold the process anyway.
+     */
     @Override
-    public void close() throws Exception {
+    public void close() {
         daemon.interrupt();
-        reader.close();
-    }
-
-    public String nextLine() {
-        return lines.poll();
     }
 
     private class UserInputDaemon implements Runnable {
         @Override
         public void run() {
-            while (!Thread.currentThread().isInterrupted()) {
-                try {
-                    Thread.sleep(10);
-                    if (reader.ready()) {
-                        final String s = reader.readLine();
-                        log.debug("\n // s: " + s);
-                        lines.add(s);
-                    }
-                } catch (final IOException e) {
-                    log.debug("", e);
-                    throw new RuntimeException(e);
-                } catch (final InterruptedException e) {
-                    throw new RuntimeException(e);
+            try {
+                String s;
+                while (!Thread.currentThread().isInterrupted() && (s = reader.readLine()) != null) {
+                    log.debug("\n // s: {}", s);
+                    lineConsumer.accept(s);
                 }
+            } catch (final IOException e) {
+                log.debug("", e);
             }
-            log.info("UserInput daemon thread has been interrupted.");
+            log.info("UserInput daemon thread has finished.");
+            endOfInput.run();
         }
     }
 }
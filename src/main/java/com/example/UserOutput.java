@@ -3,48 +3,274 @@ package com.example;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.annotation.Nonnull;
+import java.io.IOException;
 import java.io.OutputStreamWriter;
 import java.io.PrintStream;
-import java.io.PrintWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
 import java.lang.invoke.MethodHandles;
-import java.time.LocalTime;
-import java.time.temporal.ChronoUnit;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
+/**
+ * Writes the messages to the user, every one on its own line, prefixed with the time {@code [HH:mm:ss.SSS]}.
+ * <p>
+ * The lines are collected in a reusable buffer and written out in batches: when the batch is full,
+ * when its first line has waited long enough (checked by a daemon thread, so a lone last line is written too),
+ * or on {@link #flush()}. The time prefix is cached and only refreshed when the clock has moved on by a millisecond.
+ * <p>
+ * An asynchronous output hands the messages over to a daemon thread, which writes them out
+ * and flushes whenever it runs out of messages, so the caller never waits for the console.
+ * The time of a message is still taken when it is written by the caller.
+ */
 class UserOutput implements AutoCloseable {
     private final static Logger log = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
 
-    private final PrintWriter writer;
+    static final int DEFAULT_BATCH_LINES = 64;
+    static final long DEFAULT_MAX_DELAY_IN_NANOS = TimeUnit.MILLISECONDS.toNanos(50);
+
+    private static final long SHUTDOWN_TIMEOUT_IN_MILLIS = 1000;
+    private static final Message END_OF_OUTPUT = new Message("end of output", 0L); // compared by reference
+    private static final int PREFIX_LENGTH = "[HH:mm:ss.SSS] ".length();
+
+    /**
+     * (Immutable) A message of an asynchronous output, with the time it was written at.
+     */
+    private static final class Message {
+        private final String text;
+        private final long millis;
+
+        private Message(@Nonnull final String text,
+                        final long millis) {
+            this.text = text;
+            this.millis = millis;
+        }
+    }
+
+    private final Writer writer;
+    private final int batchLines;
+    private final long maxDelayInNanos;
+    private final BlockingQueue<Message> messages; // null unless asynchronous
+    private final Thread writerThread; // null unless asynchronous
+    private final ScheduledExecutorService flusher; // null if asynchronous
+
+    // guarded by this
+    private char[] batch = new char[1 << 13];
+    private int batchLength;
+    private int pendingLines;
+    private long firstPendingNanos;
+    private final char[] prefix = "[00:00:00.000] ".toCharArray();
+    private long prefixMillis = Long.MIN_VALUE;
+    private long prefixSecond = Long.MIN_VALUE;
 
     public UserOutput(final PrintStream out) {
-        this.writer = new PrintWriter(new OutputStreamWriter(out));
+        this(out, false);
+    }
+
+    public UserOutput(final PrintStream out,
+                      final boolean asynchronous) {
+        this(out, asynchronous, DEFAULT_BATCH_LINES, DEFAULT_MAX_DELAY_IN_NANOS);
+    }
+
+    /**
+     * @param batchLines      the most lines written out together
+     * @param maxDelayInNanos the longest time a line may wait for the rest of its batch, unless asynchronous
+     */
+    public UserOutput(final PrintStream out,
+                      final boolean asynchronous,
+                      final int batchLines,
+                      final long maxDelayInNanos) {
+        if (batchLines < 1) {
+            throw new ElevatorException("Please provide at least one line per output batch.");
+        }
+        this.writer = new OutputStreamWriter(out);
+        this.batchLines = batchLines;
+        this.maxDelayInNanos = maxDelayInNanos;
+        if (asynchronous) {
+            messages = new LinkedBlockingQueue<>();
+            writerThread = new Thread(this::drain, "user-output");
+            writerThread.setDaemon(true);
+            writerThread.start();
+            flusher = null;
+        } else {
+            messages = null;
+            writerThread = null;
+            flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                final Thread thread = new Thread(runnable, "user-output-flusher");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
     }
 
+    /**
+     * Writes out everything written so far and closes the stream.
+     */
     @Override
     public void close() {
-        writer.flush();
-        writer.close();
+        if (flusher != null) {
+            flusher.shutdownNow();
+        }
+        if (writerThread != null) {
+            messages.add(END_OF_OUTPUT);
+            try {
+                writerThread.join(SHUTDOWN_TIMEOUT_IN_MILLIS);
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        synchronized (this) {
+            flushBatch();
+            try {
+                writer.close();
+            } catch (final IOException e) {
+                log.debug("The output can not be closed", e);
+            }
+        }
+    }
+
+    public void writeString(@Nonnull final String message) {
+        if (messages != null) {
+            messages.add(new Message(message, System.currentTimeMillis()));
+        } else {
+            synchronized (this) {
+                append(message, System.currentTimeMillis());
+                if (pendingLines >= batchLines || System.nanoTime() - firstPendingNanos >= maxDelayInNanos) {
+                    flushBatch();
+                } else if (pendingLines == 1) {
+                    flusher.schedule(this::flushIfDue, maxDelayInNanos, TimeUnit.NANOSECONDS);
+                }
+            }
+        }
     }
 
-    public void writeString(final String message) {
-        writer.flush();
-        writer.write("[" + LocalTime.now().truncatedTo(ChronoUnit.MILLIS) + "] " + message + "\n");
-        writer.flush();
+    /**
+     * Writes out the lines collected so far, e.g. when there is nothing more to tell for a while.
+     * An asynchronous output flushes on its own.
+     */
+    public void flush() {
+        if (messages == null) {
+            synchronized (this) {
+                flushBatch();
+            }
+        }
     }
 
     public void writeException(final Throwable e) {
         log.trace("writeException() started...");
-        writer.flush();
         if (e != null) {
             if (e instanceof ElevatorException) {
                 writeString(e.getMessage());
             } else {
                 log.error("", e);
-                writeString(e.getMessage());
+                writeString(String.valueOf(e.getMessage()));
             }
         } else {
             log.error("null");
         }
-        writer.flush();
+        flush();
         log.trace("...writeException() finished");
     }
+
+    /**
+     * Writes out the batch of a synchronous output once its first line has waited long enough,
+     * unless it is written out already.
+     */
+    synchronized
+    private void flushIfDue() {
+        if (pendingLines > 0 && System.nanoTime() - firstPendingNanos >= maxDelayInNanos) {
+            flushBatch();
+        }
+    }
+
+    /**
+     * The body of the writer thread of an asynchronous output.
+     */
+    private void drain() {
+        try {
+            while (true) {
+                Message message = messages.take();
+                synchronized (this) {
+                    do {
+                        if (message == END_OF_OUTPUT) {
+                            flushBatch();
+                            return;
+                        }
+                        append(message.text, message.millis);
+                    } while (pendingLines < batchLines && (message = messages.poll()) != null);
+                    flushBatch();
+                }
+            }
+        } catch (final InterruptedException e) {
+            log.debug("The output thread has been interrupted.");
+        }
+    }
+
+    private void append(@Nonnull final String message,
+                        final long millis) {
+        if (pendingLines == 0) {
+            firstPendingNanos = System.nanoTime();
+        }
+        refreshPrefix(millis);
+        final int length = PREFIX_LENGTH + message.length() + 1;
+        if (batchLength + length > batch.length) {
+            final char[] larger = new char[Math.max(batch.length * 2, batchLength + length)];
+            System.arraycopy(batch, 0, larger, 0, batchLength);
+            batch = larger;
+        }
+        System.arraycopy(prefix, 0, batch, batchLength, PREFIX_LENGTH);
+        message.getChars(0, message.length(), batch, batchLength + PREFIX_LENGTH);
+        batch[batchLength + length - 1] = '\n';
+        batchLength += length;
+        pendingLines++;
+    }
+
+    private void flushBatch() {
+        if (batchLength == 0) {
+            return;
+        }
+        try {
+            writer.write(batch, 0, batchLength);
+            writer.flush();
+        } catch (final IOException e) {
+            throw new UncheckedIOException("The output can not be written", e);
+        } finally {
+            batchLength = 0;
+            pendingLines = 0;
+        }
+    }
+
+    /**
+     * Rewrites the milliseconds of the cached prefix, and the rest of it once a second.
+     */
+    private void refreshPrefix(final long millis) {
+        if (millis == prefixMillis) {
+            return;
+        }
+        prefixMillis = millis;
+        final long second = Math.floorDiv(millis, 1000L);
+        if (second != prefixSecond) {
+            prefixSecond = second;
+            final LocalDateTime time = LocalDateTime.ofInstant(Instant.ofEpochSecond(second), ZoneId.systemDefault());
+            putTwoDigits(1, time.getHour());
+            putTwoDigits(4, time.getMinute());
+            putTwoDigits(7, time.getSecond());
+        }
+        final int milliOfSecond = (int) Math.floorMod(millis, 1000L);
+        prefix[10] = (char) ('0' + milliOfSecond / 100);
+        putTwoDigits(11, milliOfSecond % 100);
+    }
+
+    private void putTwoDigits(final int index,
+                              final int value) {
+        prefix[index] = (char) ('0' + value / 10);
+        prefix[index + 1] = (char) ('0' + value % 10);
+    }
 }
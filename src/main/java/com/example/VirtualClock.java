@@ -0,0 +1,57 @@
+package com.example;
+
+import javax.annotation.Nonnull;
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * A discrete-event clock: the time stands still until someone advances it.
+ * <p>
+ * The clock never goes backwards, so an attempt to advance it to an earlier instant is ignored.
+ */
+public class VirtualClock implements SimulationClock {
+
+    public static final Instant DEFAULT_START = Instant.parse("2000-01-01T00:00:00Z");
+
+    private volatile long currentEpochNanos;
+
+    public VirtualClock() {
+        this(DEFAULT_START);
+    }
+
+    public VirtualClock(@Nonnull final Instant start) {
+        this.currentEpochNanos = SimulationClock.toEpochNanos(start);
+    }
+
+    @Override
+    public long epochNanos() {
+        return currentEpochNanos;
+    }
+
+    public void advanceTo(@Nonnull final Instant instant) {
+        advanceToEpochNanos(SimulationClock.toEpochNanos(instant));
+    }
+
+    synchronized
+    public void advanceToEpochNanos(final long epochNanos) {
+        if (epochNanos > currentEpochNanos) {
+            currentEpochNanos = epochNanos;
+        }
+    }
+
+    public void advanceBy(@Nonnull final Duration duration) {
+        if (duration.isNegative()) {
+            throw new IllegalArgumentException("The virtual clock can not go backwards: " + duration);
+        }
+        synchronized (this) {
+            currentEpochNanos += duration.toNanos();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "VirtualClock{" +
+                "current=" + instant() +
+                '}';
+    }
+}
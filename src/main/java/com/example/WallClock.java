@@ -0,0 +1,32 @@
+package com.example;
+
+import java.time.Instant;
+
+/**
+ * (Immutable) The real time clock, used by default.
+ * <p>
+ * The wall time is read once, and then the monotonic {@link System#nanoTime()} is added to it,
+ * so that the planned deadlines are never affected by adjustments of the system time.
+ */
+public final class WallClock implements SimulationClock {
+
+    public static final WallClock INSTANCE = new WallClock();
+
+    private final long originEpochNanos;
+    private final long originNanoTime;
+
+    private WallClock() {
+        originNanoTime = System.nanoTime();
+        originEpochNanos = SimulationClock.toEpochNanos(Instant.now());
+    }
+
+    @Override
+    public long epochNanos() {
+        return originEpochNanos + (System.nanoTime() - originNanoTime);
+    }
+
+    @Override
+    public String toString() {
+        return "WallClock";
+    }
+}
@@ -0,0 +1,116 @@
+package com.example;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class ElevatorPlanTest {
+
+    private VirtualClock clock;
+    private long start;
+    private ElevatorPlan plan;
+
+    /**
+     * Standing at the first floor, then going up from the second floor to the fifth one, 1 ms per floor,
+     * and opening the doors there.
+     */
+    @Before
+    public void setUp() {
+        clock = new VirtualClock();
+        start = clock.epochNanos();
+        plan = new ElevatorPlan(1, 10);
+        plan.append(PlanSegment.single(0L, 1, DoorsState.CLOSED, 0.0d), start);
+        plan.append(PlanSegment.travel(2, 5, 4_000_000L, 2.0d, 0.0d), start + 1_000_000L);
+        plan.append(PlanSegment.single(0L, 5, DoorsState.OPENED, 0.0d), start + 5_000_000L);
+    }
+
+    /**
+     * @return the remaining states as "milliseconds from the start, floor, doors, speed"
+     */
+    private List<String> drain() {
+        final List<String> result = new ArrayList<>();
+        ElevatorState state;
+        while ((state = plan.pollFirst()) != null) {
+            result.add((state.getPlannedEpochNanos() - start) / 1_000_000L + " " + state.getFloor() + " "
+                    + state.getDoorsState() + " " + state.getSpeed());
+        }
+        return result;
+    }
+
+    @Test
+    public void createsTheStatesOfTheSegmentsOneByOne() {
+        assertEquals(6, plan.size());
+        assertEquals(3, plan.segmentCount());
+        assertEquals(start, plan.peekFirstEpochNanos());
+        assertEquals(start + 5_000_000L, plan.nextOpenedEpochNanos(5));
+        assertEquals(Long.MAX_VALUE, plan.nextOpenedEpochNanos(3));
+
+        assertEquals(Arrays.asList("0 1 CLOSED 0.0", "1 2 CLOSED 2.0", "2 3 CLOSED 2.0", "3 4 CLOSED 2.0",
+                "4 5 CLOSED 0.0", "5 5 OPENED 0.0"), drain());
+        assertTrue(plan.isEmpty());
+        assertEquals(0, plan.size());
+        assertEquals(Long.MAX_VALUE, plan.peekFirstEpochNanos());
+    }
+
+    @Test
+    public void splitsTheSegmentInProgressAndPostponesTheRestOnInsert() {
+        plan.pollFirst();
+        plan.stopAt(start + 2_000_000L);
+        plan.insert(start + 2_000_000L,
+                Collections.singletonList(PlanSegment.single(500_000L, 3, DoorsState.OPENED, 0.0d)), 2_000_000L);
+
+        assertEquals(start + 2_500_000L, plan.nextOpenedEpochNanos(3));
+        assertEquals(start + 7_000_000L, plan.nextOpenedEpochNanos(5));
+        assertEquals(Arrays.asList("1 2 CLOSED 2.0", "2 3 CLOSED 0.0", "2 3 OPENED 0.0", "5 4 CLOSED 2.0",
+                "6 5 CLOSED 0.0", "7 5 OPENED 0.0"), drain());
+    }
+
+    @Test
+    public void stopsOnlyAtAPlannedState() {
+        plan.stopAt(start + 3_000_000L);
+        assertEquals(0.0d, plan.stateAt(start + 3_000_000L).getSpeed(), 0.0d);
+        assertEquals(2.0d, plan.stateAt(start + 2_000_000L).getSpeed(), 0.0d);
+        assertEquals(6, plan.size());
+        try {
+            plan.stopAt(start + 3_500_000L);
+        } catch (final IllegalStateException expected) {
+            return;
+        }
+        throw new AssertionError("No state is planned at 3.5 ms");
+    }
+
+    @Test
+    public void findsTheStateInProgressAtAnyMoment() {
+        assertNull(plan.stateAt(start - 1L));
+        assertEquals(1, plan.stateAt(start + 999_999L).getFloor());
+        assertEquals(3, plan.stateAt(start + 2_500_000L).getFloor());
+        assertEquals(DoorsState.OPENED, plan.stateAt(start + 5_000_000L).getDoorsState());
+        assertEquals(DoorsState.OPENED, plan.stateAt(Long.MAX_VALUE).getDoorsState());
+
+        plan.pollFirst();
+        plan.pollFirst();
+        // the first segment is consumed in part now
+        assertEquals(3, plan.stateAt(start + 2_000_000L).getFloor());
+        assertNull(plan.stateAt(start + 1_000_000L)); // consumed already
+        assertEquals(5, plan.lastAt(5).getFloor());
+        assertNull(plan.lastAt(2));
+    }
+
+    @Test
+    public void forgetsTheWholePlan() {
+        plan.clear();
+        assertTrue(plan.isEmpty());
+        assertEquals(0, plan.size());
+        assertFalse(plan.hasOpenedDoorsAt(5));
+        assertEquals(Long.MAX_VALUE, plan.nextOpenedEpochNanos(5));
+    }
+}
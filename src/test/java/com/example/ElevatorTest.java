@@ -0,0 +1,102 @@
+package com.example;
+
+import org.junit.Test;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ElevatorTest {
+
+    /**
+     * Applies the whole plan on the virtual clock.
+     *
+     * @return the floors where the doors have opened, in order
+     */
+    private static List<Integer> runToTheEnd(final Elevator elevator) {
+        final List<Integer> opened = new ArrayList<>();
+        elevator.addListener((previousState, newState) -> {
+            if (newState.getDoorsState() == DoorsState.OPENED) {
+                opened.add(newState.getFloor());
+            }
+        });
+        while (elevator.advanceToNextState()) {
+            // applied by the elevator
+        }
+        return opened;
+    }
+
+    @Test
+    public void servesTheTopAndTheMiddleOfTheTallestBuilding() {
+        final Elevator elevator = new Elevator(Constants.MAX_FLOORS, 3.0d, 2.0d, 3.0d, new VirtualClock(),
+                PlannerType.EXCURSIONS);
+        elevator.callTo(Constants.MAX_FLOORS);
+        elevator.callTo(Constants.MAX_FLOORS / 2); // planned hours ahead of the clock
+
+        assertEquals(Arrays.asList(Constants.MAX_FLOORS / 2, Constants.MAX_FLOORS), runToTheEnd(elevator));
+    }
+
+    @Test
+    public void servesTheDeepestBasementOfTheTallestBuilding() {
+        final int minFloor = 1 - Constants.MAX_FLOORS / 2;
+        final int maxFloor = Constants.MAX_FLOORS / 2;
+        for (final PlannerType plannerType : PlannerType.values()) {
+            final Elevator elevator = new Elevator(minFloor, maxFloor, 3.0d, 2.0d, 3.0d, new VirtualClock(),
+                    plannerType);
+            elevator.callTo(maxFloor);
+            elevator.callTo(minFloor);
+
+            assertEquals(plannerType.name(), new HashSet<>(Arrays.asList(minFloor, maxFloor)),
+                    new HashSet<>(runToTheEnd(elevator)));
+        }
+    }
+
+    @Test
+    public void answersThePositionHoursAheadAndPastTheEndOfThePlan() {
+        final VirtualClock clock = new VirtualClock();
+        final Elevator elevator = new Elevator(Constants.MAX_FLOORS, 3.0d, 2.0d, 3.0d, clock, PlannerType.LOOK);
+        final Instant start = clock.instant();
+        assertEquals(elevator.getCurrentState(), elevator.positionAt(start.plusSeconds(7200L)));
+
+        elevator.callTo(Constants.MAX_FLOORS); // 1.5 s per floor, more than four hours up
+        elevator.callTo(Constants.MAX_FLOORS / 2);
+        final ElevatorState twoHoursAhead = elevator.positionAt(start.plusSeconds(7200L));
+        assertEquals(1 + 4800, twoHoursAhead.getFloor());
+        assertEquals(DoorsState.CLOSED, twoHoursAhead.getDoorsState());
+        final ElevatorState pastTheEnd = elevator.positionAt(start.plus(1L, ChronoUnit.DAYS));
+
+        runToTheEnd(elevator);
+        assertEquals(elevator.getCurrentState(), pastTheEnd);
+        assertEquals(Constants.MAX_FLOORS, pastTheEnd.getFloor());
+        assertEquals(pastTheEnd, elevator.positionAt(start.plus(1L, ChronoUnit.DAYS)));
+    }
+
+    @Test
+    public void servesRandomCallsInTallBuildings() {
+        for (long seed = 1L; seed <= 20L; seed++) {
+            final Random random = new Random(seed);
+            final int floors = 2 + random.nextInt(3000);
+            final Elevator elevator = new Elevator(floors, 3.0d, 2.0d, 3.0d, new VirtualClock(),
+                    PlannerType.EXCURSIONS);
+            final Set<Integer> called = new HashSet<>();
+            for (int i = 0; i < 20; i++) {
+                final int floor = 1 + random.nextInt(floors);
+                if (floor != elevator.getLobbyFloor()) {
+                    called.add(floor);
+                }
+                elevator.callTo(floor);
+            }
+
+            final List<Integer> opened = runToTheEnd(elevator);
+            assertTrue("seed " + seed, opened.containsAll(called));
+        }
+    }
+}
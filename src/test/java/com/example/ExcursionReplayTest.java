@@ -0,0 +1,98 @@
+package com.example;
+
+import org.junit.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.zip.CRC32;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Replays random calls against the excursion planner and compares every transition with the recording
+ * in {@code excursion-replays.txt}, made by the planner which kept one state per floor in a delay queue,
+ * before the plan became a timeline of segments.
+ * <p>
+ * Only the API of that planner is used here, so the recording can be made again by running {@link #replay}
+ * against the classes of that commit: {@code git show 655b1a6}.
+ */
+public class ExcursionReplayTest {
+
+    private static final String RECORDING = "excursion-replays.txt";
+
+    /**
+     * @return the number of transitions and the CRC-32 of their offsets from the start, floors, doors and speeds
+     */
+    static long[] replay(final long seed) {
+        final Random random = new Random(seed);
+        final int floors = 5 + random.nextInt(16);
+        final int calls = 20 + random.nextInt(180);
+        final int maxGapMillis = new int[]{500, 3000, 8000, 20000}[random.nextInt(4)];
+        final VirtualClock clock = new VirtualClock();
+        final Instant start = clock.instant();
+        final Elevator elevator = new Elevator(floors, 3.0d, 2.0d, 1 + random.nextInt(5), clock);
+        final StringBuilder transcript = new StringBuilder();
+        final long[] transitions = {0L};
+        elevator.addListener((previousState, newState) -> {
+            transitions[0]++;
+            transcript.append(Duration.between(start, newState.getPlannedInstant()).toNanos())
+                      .append(' ').append(newState.getFloor())
+                      .append(' ').append(newState.getDoorsState())
+                      .append(' ').append(newState.getSpeed())
+                      .append('\n');
+        });
+        for (int i = 0; i < calls; i++) {
+            elevator.advanceTo(clock.instant().plusMillis(random.nextInt(maxGapMillis)));
+            final int floor = 1 + random.nextInt(floors);
+            if (random.nextBoolean()) {
+                elevator.callTo(floor);
+            } else {
+                elevator.rideTo(floor);
+            }
+        }
+        while (elevator.advanceToNextState()) {
+            // applied by the elevator
+        }
+        final CRC32 crc = new CRC32();
+        crc.update(transcript.toString().getBytes(StandardCharsets.UTF_8));
+        return new long[]{transitions[0], crc.getValue()};
+    }
+
+    @Test
+    public void replaysTheRecordedTransitions() throws IOException {
+        final List<String> recorded = new ArrayList<>();
+        try (final BufferedReader reader = new BufferedReader(new InputStreamReader(
+                ExcursionReplayTest.class.getResourceAsStream(RECORDING), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (!line.isEmpty() && !line.startsWith("#")) {
+                    recorded.add(line);
+                }
+            }
+        }
+        for (final String line : recorded) {
+            final String[] fields = line.split(" ");
+            final long seed = Long.parseLong(fields[0]);
+            final long[] replayed = replay(seed);
+            assertEquals("transitions of seed " + seed, Long.parseLong(fields[1]), replayed[0]);
+            assertEquals("transcript of seed " + seed, Long.parseLong(fields[2]), replayed[1]);
+        }
+    }
+
+    /**
+     * Prints the recording of the given seeds, from (inclusive) to (exclusive).
+     */
+    public static void main(final String[] args) {
+        for (long seed = Long.parseLong(args[0]); seed < Long.parseLong(args[1]); seed++) {
+            final long[] replayed = replay(seed);
+            System.out.println(seed + " " + replayed[0] + " " + replayed[1]);
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.example;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+public class JournalReaderTest {
+
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    /**
+     * Journals the given number of transitions of a car going up from the first floor, a second apart.
+     */
+    private static void journal(final Path directory,
+                                final VirtualClock clock,
+                                final int transitions) throws IOException {
+        try (final StateJournal journal = new StateJournal(directory, 4)) {
+            for (int floor = 1; floor <= transitions; floor++) {
+                journal.append(0, new ElevatorState(clock.epochNanos(), floor, DoorsState.CLOSED, 2.0d));
+                clock.advanceToEpochNanos(clock.epochNanos() + Constants.NANOS_PER_SECOND);
+            }
+        }
+    }
+
+    @Test
+    public void replaysTheJournalsOfABatchRunAndOfAnInteractiveOneApart() throws IOException {
+        final Path directory = folder.getRoot().toPath();
+        journal(directory, new VirtualClock(Instant.parse("2026-10-17T12:00:00Z")), 6); // goes on in a second segment
+        journal(directory, new VirtualClock(), 3); // the batch run starts at 2000-01-01
+
+        final List<ElevatorState> previousStates = new ArrayList<>();
+        final List<ElevatorState> newStates = new ArrayList<>();
+        final long count = new JournalReader(directory).replay((previousState, newState) -> {
+            previousStates.add(previousState);
+            newStates.add(newState);
+        });
+
+        assertEquals(9L, count);
+        assertNull(previousStates.get(0));
+        assertSame(newStates.get(3), previousStates.get(4)); // the first journal goes on in the second segment
+        assertNull(previousStates.get(6));
+        assertEquals(VirtualClock.DEFAULT_START, newStates.get(6).getPlannedInstant());
+        assertSame(newStates.get(7), previousStates.get(8));
+    }
+
+    @Test
+    public void stopsAtADamagedRecordOfTheSegment() throws IOException {
+        final Path directory = folder.getRoot().toPath();
+        journal(directory, new VirtualClock(), 3);
+        final Path segment = StateJournal.segmentsOf(directory).get(0);
+        try (final FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[]{(byte) DoorsState.values().length}),
+                    StateJournal.HEADER_SIZE + StateJournal.RECORD_SIZE + StateJournal.DOORS_OFFSET);
+        }
+
+        final List<Integer> floors = new ArrayList<>();
+        final long count = new JournalReader(directory).scan(
+                (carNumber, plannedEpochNanos, floor, doorsState, speed) -> floors.add(floor));
+
+        assertEquals(1L, count);
+        assertEquals(1, (int) floors.get(0));
+    }
+}
@@ -0,0 +1,44 @@
+package com.example;
+
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class LoadTestTest {
+
+    private static final ElevatorSettings SETTINGS = new ElevatorSettings(20, 3.0d, 2.0d, 3.0d, 1,
+            PlannerType.EXCURSIONS);
+
+    @Test
+    public void reportsEveryRateUpToAnOverloadedOne() throws InterruptedException {
+        // at 600 calls per minute the plan runs hours ahead of the clock
+        final double[] rates = {10.0d, 600.0d};
+        final LoadTestReport report = new LoadTest(SETTINGS, TrafficPattern.UP_PEAK, rates, 600.0d, 1L, 60.0d).run();
+
+        final List<LoadTestReport.Step> steps = report.getSteps();
+        assertEquals(rates.length, steps.size());
+        final LoadTestReport.Step overloaded = steps.get(1);
+        assertFalse(overloaded.isFailed());
+        assertEquals(overloaded.getReport().getPassengers(), overloaded.getReport().getDelivered());
+        assertTrue(overloaded.getReport().getMaxWaitNanos() > 60L * 60L * Constants.NANOS_PER_SECOND);
+        assertNotNull(report.getFirstTooSlow());
+        assertTrue(report.toString(), report.toString().contains("600.0"));
+    }
+
+    @Test
+    public void reportsAFailedRateAsSaturated() {
+        final LoadTestReport.Step failed = LoadTestReport.Step.failed(200.0d, SETTINGS, "java.lang.IllegalStateException");
+        final LoadTestReport report = new LoadTestReport(SETTINGS, TrafficPattern.UP_PEAK, 600.0d, 60.0d,
+                Collections.singletonList(failed));
+
+        assertSame(failed, report.getFirstTooSlow());
+        assertTrue(report.toString(), report.toString().contains("saturated"));
+    }
+}
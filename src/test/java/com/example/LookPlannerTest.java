@@ -0,0 +1,143 @@
+package com.example;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class LookPlannerTest {
+
+    private static Elevator elevator(final VirtualClock clock,
+                                     final Kinematics kinematics) {
+        return new Elevator(-3, 10, 3.0d, 2.0d, 3.0d, clock, PlannerType.LOOK, kinematics);
+    }
+
+    /**
+     * Applies the whole plan on the virtual clock.
+     *
+     * @return the floors where the doors have opened, in order
+     */
+    private static List<Integer> runToTheEnd(final Elevator elevator) {
+        final List<Integer> opened = new ArrayList<>();
+        elevator.addListener((previousState, newState) -> {
+            if (newState.getDoorsState() == DoorsState.OPENED) {
+                opened.add(newState.getFloor());
+            }
+        });
+        while (elevator.advanceToNextState()) {
+            // applied by the elevator
+        }
+        return opened;
+    }
+
+    @Test
+    public void stopsOnTheWayAndExtendsTheSweepBeyondTheFarthestStop() {
+        final Elevator elevator = elevator(new VirtualClock(), null);
+        elevator.callTo(5);
+        elevator.callTo(3); // passed on the way up
+        elevator.callTo(8); // beyond the plan
+
+        assertEquals(Arrays.asList(3, 5, 8), runToTheEnd(elevator));
+    }
+
+    @Test
+    public void extendsTheSweepAtTheHighestStop() {
+        final Elevator elevator = elevator(new VirtualClock(), null);
+        elevator.callTo(-2);
+        elevator.callTo(5); // the elevator is going away, so it comes after the end of the plan
+        elevator.callTo(7);
+
+        assertEquals(Arrays.asList(-2, 5, 7), runToTheEnd(elevator));
+    }
+
+    @Test
+    public void extendsTheSweepAtTheLowestStop() {
+        final Elevator elevator = elevator(new VirtualClock(), null);
+        elevator.callTo(5);
+        elevator.callTo(-2);
+        elevator.callTo(-3);
+
+        assertEquals(Arrays.asList(5, -2, -3), runToTheEnd(elevator));
+    }
+
+    @Test
+    public void comesBackFromTheExtendedSweepToTheRestOfThePlan() {
+        final Elevator elevator = elevator(new VirtualClock(), null);
+        elevator.callTo(5);
+        elevator.callTo(-2);
+        elevator.callTo(8); // goes on from the fifth floor, then back down to the basement
+
+        assertEquals(Arrays.asList(5, 8, -2), runToTheEnd(elevator));
+    }
+
+    @Test
+    public void startsTheRestOfTheTripFromAStandstillAfterAStopOnTheWay() {
+        final VirtualClock clock = new VirtualClock();
+        final Elevator elevator = elevator(clock, new Kinematics(1.0d, 2.0d));
+        final long start = clock.epochNanos();
+        elevator.callTo(10);
+        assertEquals(start + elevator.getTravelNanos(9), elevator.estimateArrivalEpochNanos(10));
+
+        elevator.callTo(5);
+        final long doorsNanos = Constants.DOORS_OPENING_TIME_IN_MILLIS + 1 + elevator.getTimeoutInNanos() + 1;
+        // two trips from a standstill take longer than a single one, the postponement is a nanosecond longer
+        assertEquals(start + elevator.getTravelNanos(4) + doorsNanos + elevator.getTravelNanos(5) + 1,
+                elevator.estimateArrivalEpochNanos(10));
+        assertEquals(Arrays.asList(5, 10), runToTheEnd(elevator));
+    }
+
+    /**
+     * Random hall and car calls, now and then: the doors open exactly once for the calls to a floor
+     * since the previous stop there, and the plan never opens the doors twice at the same floor.
+     */
+    @Test
+    public void servesEveryCallOnceAndPlansNoFloorTwice() {
+        for (long seed = 1L; seed <= 100L; seed++) {
+            final Random random = new Random(seed);
+            final VirtualClock clock = new VirtualClock();
+            final Elevator elevator = elevator(clock, random.nextBoolean() ? new Kinematics(1.0d, 2.0d) : null);
+            final String message = "seed " + seed;
+            final Set<Integer> called = new HashSet<>();
+            elevator.addListener((previousState, newState) -> {
+                if (newState.getDoorsState() == DoorsState.OPENED) {
+                    assertTrue(message + ", floor " + newState.getFloor(), called.remove(newState.getFloor()));
+                }
+            });
+            final int maxGapMillis = new int[]{500, 5000, 20000}[random.nextInt(3)];
+            for (int i = 0; i < 100; i++) {
+                elevator.advanceTo(clock.instant().plusMillis(random.nextInt(maxGapMillis)));
+                final int floor = elevator.getMinFloor()
+                        + random.nextInt(elevator.getMaxFloor() - elevator.getMinFloor() + 1);
+                called.add(floor);
+                if (random.nextBoolean()) {
+                    elevator.callTo(floor);
+                } else {
+                    elevator.rideTo(floor);
+                }
+                assertNoFloorPlannedTwice(message + ", call " + i, elevator.takeSnapshot());
+            }
+            while (elevator.advanceToNextState()) {
+                // applied by the elevator
+            }
+            assertTrue(message + ", not served " + called, called.isEmpty());
+        }
+    }
+
+    private static void assertNoFloorPlannedTwice(final String message,
+                                                  final PlanSnapshot snapshot) {
+        final Set<Integer> opened = new HashSet<>();
+        for (int i = 0; i < snapshot.getSegmentCount(); i++) {
+            final PlanSegment segment = snapshot.getSegment(i);
+            if (segment.isSingle() && segment.getDoorsState() == DoorsState.OPENED) {
+                assertTrue(message + ", floor " + segment.getFirstFloor(), opened.add(segment.getFirstFloor()));
+            }
+        }
+    }
+}
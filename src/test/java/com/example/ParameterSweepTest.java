@@ -0,0 +1,62 @@
+package com.example;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class ParameterSweepTest {
+
+    private static final List<ElevatorSettings> GRID = ParameterSweep.grid(1, new int[]{20, 40}, new double[]{3.0d},
+            new double[]{1.0d, 2.0d}, new double[]{3.0d}, 1, PlannerType.EXCURSIONS, null);
+
+    @Test
+    public void simulatesEveryConfigurationOfAnOverloadedGrid() {
+        final List<LoadTestReport.Step> results = new ParameterSweep(GRID, TrafficPattern.UP_PEAK, 200.0d, 300.0d, 1L)
+                .run(new ForkJoinPool(2));
+
+        assertEquals(GRID.size(), results.size());
+        for (int i = 0; i < GRID.size(); i++) {
+            assertFalse(results.get(i).isFailed());
+            assertSame(GRID.get(i), results.get(i).getSettings());
+        }
+        assertFalse(ParameterSweep.best(results).isFailed());
+    }
+
+    @Test
+    public void keepsAFailedConfigurationInTheTableAndOutOfTheRanking() throws IOException {
+        final LoadTestReport.Step failed = LoadTestReport.Step.failed(60.0d, GRID.get(0), "failure, \"quoted\"");
+        final List<LoadTestReport.Step> results = Arrays.asList(failed,
+                new ParameterSweep(GRID.subList(1, 2), TrafficPattern.BACKGROUND, 60.0d, 300.0d, 1L)
+                        .run(new ForkJoinPool(1)).get(0));
+
+        final StringBuilder table = new StringBuilder();
+        ParameterSweep.writeTable(results, table);
+        final String[] rows = table.toString().split("\n");
+        assertEquals(3, rows.length);
+        assertTrue(rows[1], rows[1].startsWith("1,20,3.0,1.0,3.0,1,excursions,,"));
+        assertTrue(rows[1], rows[1].endsWith(",\"failure, \"\"quoted\"\"\""));
+        assertSame(results.get(1), ParameterSweep.best(results));
+        assertNull(ParameterSweep.best(Arrays.asList(failed)));
+    }
+
+    @Test
+    public void parsesRanges() {
+        assertArrayEquals(new double[]{1.0d, 1.5d, 2.0d}, ParameterSweep.parseRange("1..2/0.5"), 1e-9);
+        assertArrayEquals(new double[]{3.0d, 5.0d}, ParameterSweep.parseRange("3, 5"), 1e-9);
+    }
+
+    @Test(expected = ElevatorException.class)
+    public void rejectsARangeOfNotNumbers() {
+        ParameterSweep.parseRange("1..x");
+    }
+}
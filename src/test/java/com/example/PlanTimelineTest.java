@@ -0,0 +1,246 @@
+package com.example;
+
+import com.example.PlanTimeline.Node;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+public class PlanTimelineTest {
+
+    private static final long NANOS_PER_FLOOR = 1_000L;
+
+    private static PlanSegment trip(final int firstFloor,
+                                    final int lastFloor) {
+        return PlanSegment.travel(firstFloor, lastFloor, (Math.abs(lastFloor - firstFloor) + 1) * NANOS_PER_FLOOR,
+                Math.signum(lastFloor - firstFloor), 0.0d);
+    }
+
+    @Test
+    public void keepsTheMomentsOfTheOtherNodesOnInsertAndRemove() {
+        final PlanTimeline timeline = new PlanTimeline();
+        final Node first = timeline.insertAfter(null, trip(1, 3), Direction.UP, 1_000_000L);
+        final Node third = timeline.insertAfter(first, trip(3, 1), Direction.DOWN, 1_009_000L);
+        final Node second = timeline.insertAfter(first, trip(3, 5), Direction.UP, 1_004_000L);
+
+        assertEquals(1_000_000L, timeline.firstEpochNanosOf(first));
+        assertEquals(1_004_000L, timeline.firstEpochNanosOf(second));
+        assertEquals(1_009_000L, timeline.firstEpochNanosOf(third));
+        assertEquals(4_000L, second.getOffsetNanos());
+        assertEquals(5_000L, third.getOffsetNanos());
+        assertEquals(1_006_000L, timeline.lastEpochNanosOf(second));
+        assertEquals(1, timeline.rankOf(second));
+
+        timeline.remove(second);
+        assertEquals(1_009_000L, timeline.firstEpochNanosOf(third));
+        assertSame(third, timeline.next(first));
+        assertSame(first, timeline.previous(third));
+    }
+
+    @Test
+    public void postponesANodeAndEverythingAfterIt() {
+        final PlanTimeline timeline = new PlanTimeline();
+        final Node first = timeline.insertAfter(null, trip(1, 3), Direction.UP, 0L);
+        final Node second = timeline.insertAfter(first, trip(3, 5), Direction.UP, 10_000L);
+        final Node third = timeline.insertAfter(second, trip(5, 2), Direction.DOWN, 20_000L);
+
+        timeline.postpone(second, 7_000L);
+
+        assertEquals(0L, timeline.firstEpochNanosOf(first));
+        assertEquals(17_000L, timeline.firstEpochNanosOf(second));
+        assertEquals(27_000L, timeline.firstEpochNanosOf(third));
+        assertSame(first, timeline.floor(16_999L));
+        assertSame(second, timeline.floor(17_000L));
+        assertNull(timeline.floor(-1L));
+    }
+
+    @Test
+    public void findsTheFloorBounds() {
+        final PlanTimeline timeline = new PlanTimeline();
+        Node node = timeline.insertAfter(null, trip(1, 6), Direction.UP, 0L);
+        node = timeline.insertAfter(node, trip(6, -2), Direction.DOWN, 10_000L);
+        final Node upToEight = timeline.insertAfter(node, trip(-2, 8), Direction.UP, 20_000L);
+        final Node downToMinusTwo = timeline.insertAfter(upToEight, trip(8, -2), Direction.DOWN, 40_000L);
+        final Node upToZero = timeline.insertAfter(downToMinusTwo, trip(-2, 0), Direction.UP, 60_000L);
+
+        assertSame(node, timeline.firstPassing(-1));
+        assertSame(upToEight, timeline.firstPassing(7));
+        assertNull(timeline.firstPassing(9));
+        assertSame(downToMinusTwo, timeline.lastAtHighest());
+        assertSame(upToZero, timeline.lastAtLowest());
+
+        timeline.setSegment(upToZero, trip(-1, 0));
+        assertSame(downToMinusTwo, timeline.lastAtLowest());
+    }
+
+    /**
+     * A node of the plain model of the timeline: a list in chronological order with absolute moments.
+     */
+    private static final class Entry {
+        private final Node node;
+        private PlanSegment segment;
+        private long firstEpochNanos;
+
+        private Entry(final Node node,
+                      final PlanSegment segment,
+                      final long firstEpochNanos) {
+            this.node = node;
+            this.segment = segment;
+            this.firstEpochNanos = firstEpochNanos;
+        }
+    }
+
+    @Test
+    public void agreesWithAPlainListUnderRandomChanges() {
+        for (long seed = 1L; seed <= 50L; seed++) {
+            final Random random = new Random(seed);
+            final PlanTimeline timeline = new PlanTimeline();
+            final List<Entry> model = new ArrayList<>();
+            for (int step = 0; step < 300; step++) {
+                final int operation = model.isEmpty() ? 0 : random.nextInt(4);
+                if (operation == 0 || operation == 1 && model.size() < 3) {
+                    // inserts a trip between two nodes, at any moment in between
+                    final int index = random.nextInt(model.size() + 1);
+                    final Entry previous = index == 0 ? null : model.get(index - 1);
+                    final long from = previous == null ? 0L : previous.firstEpochNanos;
+                    final long to = index == model.size() ? from + 100_000L : model.get(index).firstEpochNanos;
+                    insert(timeline, model, index, trip(random.nextInt(41) - 20, random.nextInt(41) - 20),
+                            from + (long) (random.nextDouble() * (to - from)));
+                } else if (operation == 1) {
+                    final Entry removed = model.remove(random.nextInt(model.size()));
+                    timeline.remove(removed.node);
+                } else if (operation == 2) {
+                    postpone(timeline, model, random.nextInt(model.size()), random.nextInt(10_000));
+                } else {
+                    final Entry changed = model.get(random.nextInt(model.size()));
+                    changed.segment = trip(random.nextInt(41) - 20, random.nextInt(41) - 20);
+                    timeline.setSegment(changed.node, changed.segment);
+                }
+                assertAgrees("seed " + seed + ", step " + step, model, timeline, random);
+            }
+        }
+    }
+
+    /**
+     * The way the plan changes it: the route stays unbroken, the segments are split, consumed and postponed.
+     */
+    @Test
+    public void findsTheFirstPassingSegmentOfARandomRoute() {
+        for (long seed = 1L; seed <= 50L; seed++) {
+            final Random random = new Random(seed);
+            final PlanTimeline timeline = new PlanTimeline();
+            final List<Entry> model = new ArrayList<>();
+            int lastFloor = 0;
+            for (int step = 0; step < 300; step++) {
+                final int operation = model.isEmpty() ? 0 : random.nextInt(4);
+                if (operation == 0) {
+                    final Entry last = model.isEmpty() ? null : model.get(model.size() - 1);
+                    final long from = last == null ? 0L : last.firstEpochNanos + last.segment.getDurationNanos();
+                    final int floor = random.nextInt(41) - 20;
+                    insert(timeline, model, model.size(), trip(lastFloor, floor), from + random.nextInt(5_000));
+                    lastFloor = floor;
+                } else if (operation == 1) {
+                    final int index = random.nextInt(model.size());
+                    final Entry split = model.get(index);
+                    if (split.segment.size() > 1) {
+                        final int count = 1 + random.nextInt(split.segment.size() - 1);
+                        final PlanSegment whole = split.segment;
+                        split.segment = whole.head(count);
+                        timeline.setSegment(split.node, split.segment);
+                        insert(timeline, model, index + 1, whole.tail(count),
+                                split.firstEpochNanos + whole.offsetNanosAt(count));
+                    }
+                } else if (operation == 2) {
+                    timeline.remove(model.remove(0).node);
+                } else {
+                    postpone(timeline, model, random.nextInt(model.size()), random.nextInt(10_000));
+                }
+                final String message = "seed " + seed + ", step " + step;
+                assertAgrees(message, model, timeline, random);
+                for (int floor = -21; floor <= 21; floor++) {
+                    Node passing = null;
+                    for (final Entry entry : model) {
+                        if (entry.segment.indexOfFloor(floor) >= 0) {
+                            passing = entry.node;
+                            break;
+                        }
+                    }
+                    assertSame(message + ", floor " + floor, passing, timeline.firstPassing(floor));
+                }
+            }
+        }
+    }
+
+    private static void insert(final PlanTimeline timeline,
+                               final List<Entry> model,
+                               final int index,
+                               final PlanSegment segment,
+                               final long firstEpochNanos) {
+        final Node previous = index == 0 ? null : model.get(index - 1).node;
+        final Node node = timeline.insertAfter(previous, segment, segment.getDirection(), firstEpochNanos);
+        model.add(index, new Entry(node, segment, firstEpochNanos));
+    }
+
+    private static void postpone(final PlanTimeline timeline,
+                                 final List<Entry> model,
+                                 final int index,
+                                 final long nanos) {
+        timeline.postpone(model.get(index).node, nanos);
+        for (int i = index; i < model.size(); i++) {
+            model.get(i).firstEpochNanos += nanos;
+        }
+    }
+
+    /**
+     * Checks the order, the moments and the bounds of the floors against the model.
+     */
+    private static void assertAgrees(final String message,
+                                     final List<Entry> model,
+                                     final PlanTimeline timeline,
+                                     final Random random) {
+        assertEquals(message, model.size(), timeline.size());
+        Node node = timeline.first();
+        for (int i = 0; i < model.size(); i++) {
+            final Entry entry = model.get(i);
+            assertSame(message, entry.node, node);
+            assertSame(message, entry.segment, node.getSegment());
+            assertEquals(message, entry.firstEpochNanos, timeline.firstEpochNanosOf(node));
+            assertEquals(message, i, timeline.rankOf(node));
+            node = timeline.next(node);
+        }
+        assertNull(message, node);
+        assertSame(message, model.isEmpty() ? null : model.get(model.size() - 1).node, timeline.last());
+
+        final long end = model.isEmpty() ? 0L : model.get(model.size() - 1).firstEpochNanos;
+        final long moment = (long) (random.nextDouble() * (end + 2L));
+        Node floor = null;
+        Node lastAtHighest = null;
+        Node lastAtLowest = null;
+        int highest = Integer.MIN_VALUE;
+        int lowest = Integer.MAX_VALUE;
+        for (final Entry entry : model) {
+            if (entry.firstEpochNanos <= moment) {
+                floor = entry.node;
+            }
+            final PlanSegment segment = entry.segment;
+            final int top = Math.max(segment.getFirstFloor(), segment.getLastFloor());
+            final int bottom = Math.min(segment.getFirstFloor(), segment.getLastFloor());
+            if (top >= highest) {
+                highest = top;
+                lastAtHighest = entry.node;
+            }
+            if (bottom <= lowest) {
+                lowest = bottom;
+                lastAtLowest = entry.node;
+            }
+        }
+        assertSame(message + ", moment " + moment, floor, timeline.floor(moment));
+        assertSame(message, lastAtHighest, timeline.lastAtHighest());
+        assertSame(message, lastAtLowest, timeline.lastAtLowest());
+    }
+}
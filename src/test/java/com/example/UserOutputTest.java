@@ -0,0 +1,66 @@
+package com.example;
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class UserOutputTest {
+
+    private static final long MAX_DELAY_IN_MILLIS = 200L;
+    private static final long PATIENCE_IN_MILLIS = 5000L; // for a busy machine
+
+    /**
+     * @return the output once it is not empty, or empty after a long wait
+     */
+    private static String awaitOutput(final ByteArrayOutputStream bytes) throws InterruptedException {
+        final long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(PATIENCE_IN_MILLIS);
+        while (bytes.size() == 0 && System.nanoTime() < deadline) {
+            Thread.sleep(5L);
+        }
+        return bytes.toString();
+    }
+
+    @Test
+    public void writesOutALoneLineOnceItHasWaitedLongEnough() throws InterruptedException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (final UserOutput output = new UserOutput(new PrintStream(bytes), false, UserOutput.DEFAULT_BATCH_LINES,
+                TimeUnit.MILLISECONDS.toNanos(MAX_DELAY_IN_MILLIS))) {
+            final long startedNanos = System.nanoTime();
+            output.writeString("alone");
+            assertEquals("", bytes.toString()); // waits for the rest of its batch
+
+            final String written = awaitOutput(bytes); // nothing else is written, nobody flushes
+            final long waitedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedNanos);
+            assertTrue(written, written.endsWith("] alone\n"));
+            assertTrue("waited " + waitedMillis + " ms", waitedMillis >= MAX_DELAY_IN_MILLIS);
+        }
+    }
+
+    @Test
+    public void stampsAnAsynchronousLineWhenItIsWritten() throws InterruptedException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (final UserOutput output = new UserOutput(new PrintStream(bytes), true)) {
+            final LocalTime before;
+            final LocalTime after;
+            synchronized (output) { // the writer thread can not write it out until the lock is released
+                before = LocalTime.now().truncatedTo(ChronoUnit.MILLIS);
+                output.writeString("stamped");
+                after = LocalTime.now();
+                Thread.sleep(MAX_DELAY_IN_MILLIS);
+                assertEquals("", bytes.toString());
+            }
+
+            final String written = awaitOutput(bytes);
+            assertTrue(written, written.matches("\\[\\d\\d:\\d\\d:\\d\\d\\.\\d{3}] stamped\n"));
+            final LocalTime stamp = LocalTime.parse(written.substring(1, 13));
+            assertTrue(before + " <= " + stamp + " <= " + after, !stamp.isBefore(before) && !stamp.isAfter(after));
+        }
+    }
+}